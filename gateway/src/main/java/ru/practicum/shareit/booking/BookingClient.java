@@ -1,6 +1,8 @@
 package ru.practicum.shareit.booking;
 
 import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import lombok.extern.slf4j.Slf4j;
@@ -8,13 +10,16 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 
+import ru.practicum.shareit.booking.dto.BookingDecision;
 import ru.practicum.shareit.booking.dto.NewBookingRequest;
 import ru.practicum.shareit.booking.dto.BookingState;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.GatewayResponseCache;
+import ru.practicum.shareit.client.RequestCoalescer;
 import ru.practicum.shareit.exception.ValidationException;
 
 @Service
@@ -22,19 +27,39 @@ import ru.practicum.shareit.exception.ValidationException;
 public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
 
+    private final GatewayResponseCache responseCache;
+
     @Autowired
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public BookingClient(@Value("${shareit-server.url}") String serverUrl,
+                         RestTemplateBuilder builder,
+                         ClientHttpRequestFactory serverRequestFactory,
+                         RequestCoalescer requestCoalescer,
+                         GatewayResponseCache responseCache) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(() -> new HttpComponentsClientHttpRequestFactory())
-                        .build()
+                        .requestFactory(() -> serverRequestFactory)
+                        .build(),
+                requestCoalescer
         );
+        this.responseCache = responseCache;
     }
 
     public ResponseEntity<Object> create(Long userId, NewBookingRequest requestDto) {
         checkBookingStartEndDate(requestDto);
-        return post("", userId, requestDto);
+        ResponseEntity<Object> response = post("", userId, requestDto);
+        responseCache.evict(GatewayResponseCache.item(requestDto.getItemId()));
+        return response;
+    }
+
+    public ResponseEntity<Object> createBatch(Long userId, List<NewBookingRequest> requestDtos) {
+        requestDtos.forEach(this::checkBookingStartEndDate);
+        ResponseEntity<Object> response = post("/batch", userId, requestDtos);
+        requestDtos.stream()
+                .map(NewBookingRequest::getItemId)
+                .distinct()
+                .forEach(itemId -> responseCache.evict(GatewayResponseCache.item(itemId)));
+        return response;
     }
 
     public ResponseEntity<Object> approveBooking(Long userId, Long bookingId, Boolean isApproved) {
@@ -44,22 +69,39 @@ public class BookingClient extends BaseClient {
         return patch("/" + bookingId + "?approved={approved}", userId, parameters, null);
     }
 
+    public ResponseEntity<Object> approveBookings(Long userId, List<BookingDecision> decisions) {
+        return patch("/approve", userId, decisions);
+    }
+
     public ResponseEntity<Object> findBookingById(Long userId, Long bookingId) {
         return get("/" + bookingId, userId);
     }
 
-    public ResponseEntity<Object> findAllByBookerIdAndState(Long userId, BookingState state) {
-        Map<String, Object> parameters = Map.of(
-                "state", state.name()
-        );
-        return get("?state={state}", userId, parameters);
+    public ResponseEntity<Object> findAllByBookerIdAndState(Long userId, BookingState state, String after, Integer limit) {
+        return getPage("", userId, state, after, limit);
+    }
+
+    public ResponseEntity<Object> findAllByOwnerIdAndState(Long userId, BookingState state, String after, Integer limit) {
+        return getPage("/owner", userId, state, after, limit);
     }
 
-    public ResponseEntity<Object> findAllByOwnerIdAndState(Long userId, BookingState state) {
+    public ResponseEntity<Object> findOwnerSummary(Long userId, BookingState state, Integer limit) {
         Map<String, Object> parameters = Map.of(
-                "state", state.name()
+                "state", state.name(),
+                "limit", limit
         );
-        return get("/owner?state={state}", userId, parameters);
+        return get("/owner/summary?state={state}&limit={limit}", userId, parameters);
+    }
+
+    private ResponseEntity<Object> getPage(String path, Long userId, BookingState state, String after, Integer limit) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("state", state.name());
+        parameters.put("limit", limit);
+        if (after == null) {
+            return get(path + "?state={state}&limit={limit}", userId, parameters);
+        }
+        parameters.put("after", after);
+        return get(path + "?state={state}&limit={limit}&after={after}", userId, parameters);
     }
 
     private void checkBookingStartEndDate(NewBookingRequest booking) {
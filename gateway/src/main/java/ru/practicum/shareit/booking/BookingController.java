@@ -6,11 +6,18 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import ru.practicum.shareit.booking.dto.BookingDecision;
 import ru.practicum.shareit.booking.dto.NewBookingRequest;
 import ru.practicum.shareit.booking.dto.BookingState;
 
+import java.util.List;
+
 
 @Controller
 @RequestMapping(path = "/bookings")
@@ -27,6 +34,20 @@ public class BookingController {
 		return bookingClient.create(userId, requestDto);
 	}
 
+	@PostMapping("/batch")
+	public ResponseEntity<Object> createBatch(@RequestHeader("X-Sharer-User-Id") Long userId,
+			@RequestBody @NotEmpty @Size(max = 100) List<@Valid NewBookingRequest> requestDtos) {
+		log.info("Creating {} bookings in batch, userId={}", requestDtos.size(), userId);
+		return bookingClient.createBatch(userId, requestDtos);
+	}
+
+	@PatchMapping("/approve")
+	public ResponseEntity<Object> approveAll(@RequestHeader("X-Sharer-User-Id") Long userId,
+			@RequestBody @NotEmpty @Size(max = 100) List<@Valid BookingDecision> decisions) {
+		log.info("Approve {} bookings in batch, userId={}", decisions.size(), userId);
+		return bookingClient.approveBookings(userId, decisions);
+	}
+
 	@PatchMapping("/{bookingId}")
 	public ResponseEntity<Object> approve(@RequestHeader("X-Sharer-User-Id") Long userId,
 							  @PathVariable Long bookingId, @RequestParam("approved") Boolean isApproved) {
@@ -43,19 +64,33 @@ public class BookingController {
 
 	@GetMapping
 	public ResponseEntity<Object> findAllByBookerIdAndState(@RequestHeader("X-Sharer-User-Id") Long userId,
-											  @RequestParam(name = "state", defaultValue = "all") String stateParam) {
+											  @RequestParam(name = "state", defaultValue = "all") String stateParam,
+											  @RequestParam(name = "after", required = false) String after,
+											  @RequestParam(name = "limit", defaultValue = "20") @Positive @Max(100) Integer limit) {
 		BookingState state = BookingState.from(stateParam)
 				.orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
-		log.info("Get booking with state {}, userId={}", stateParam, userId);
-		return bookingClient.findAllByBookerIdAndState(userId, state);
+		log.info("Get booking with state {}, userId={}, after={}, limit={}", stateParam, userId, after, limit);
+		return bookingClient.findAllByBookerIdAndState(userId, state, after, limit);
 	}
 
 	@GetMapping("/owner")
 	public ResponseEntity<Object> findAllByOwnerIdAndState(@RequestHeader("X-Sharer-User-Id") Long userId,
-															@RequestParam(name = "state", defaultValue = "all") String stateParam) {
+															@RequestParam(name = "state", defaultValue = "all") String stateParam,
+															@RequestParam(name = "after", required = false) String after,
+															@RequestParam(name = "limit", defaultValue = "20") @Positive @Max(100) Integer limit) {
+		BookingState state = BookingState.from(stateParam)
+				.orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
+		log.info("Get booking by owner with state {}, userId={}, after={}, limit={}", stateParam, userId, after, limit);
+		return bookingClient.findAllByOwnerIdAndState(userId, state, after, limit);
+	}
+
+	@GetMapping("/owner/summary")
+	public ResponseEntity<Object> findOwnerSummary(@RequestHeader("X-Sharer-User-Id") Long userId,
+			@RequestParam(name = "state", defaultValue = "all") String stateParam,
+			@RequestParam(name = "limit", defaultValue = "20") @Positive @Max(100) Integer limit) {
 		BookingState state = BookingState.from(stateParam)
 				.orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
-		log.info("Get booking by owner with state {}, userId={}", stateParam, userId);
-		return bookingClient.findAllByOwnerIdAndState(userId, state);
+		log.info("Get booking summary by owner with state {}, userId={}, limit={}", stateParam, userId, limit);
+		return bookingClient.findOwnerSummary(userId, state, limit);
 	}
 }
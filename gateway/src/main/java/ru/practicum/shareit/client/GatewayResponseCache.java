@@ -0,0 +1,184 @@
+package ru.practicum.shareit.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Кэш успешных GET-ответов сервера с коротким временем жизни. Записи разбиты на группы
+ * (карточка предмета, поиск, запросы вещей), которые сбрасываются при проксировании изменяющих запросов.
+ * Сброс группы не обходит кэш: у каждой группы есть поколение, запись помнит поколение, при котором
+ * был начат запрос, и после сброса перестает находиться. Поколения берутся из общего счетчика,
+ * поэтому даже вытесненное и созданное заново поколение группы не совпадет со старым.
+ * Ответы с Cache-Control: no-store/no-cache/private не кэшируются, max-age сокращает время жизни записи.
+ * Если If-None-Match клиента совпадает с ETag закэшированного ответа, клиент получает 304 без тела.
+ */
+@Component
+public class GatewayResponseCache {
+    public static final String SEARCH = "items:search";
+    public static final String REQUESTS = "requests:all";
+
+    private static final int BASE_WEIGHT = 256;
+
+    private final Cache<Key, Entry> cache;
+    private final Cache<String, Long> generations;
+    private final AtomicLong lastGeneration = new AtomicLong();
+    private final Duration defaultTimeToLive;
+
+    public GatewayResponseCache(@Value("${shareit.gateway.response-cache.maximum-weight}") long maximumWeight,
+                                @Value("${shareit.gateway.response-cache.time-to-live}") Duration timeToLive,
+                                MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maximumWeight)
+                .weigher((Key key, Entry entry) -> entry.weight())
+                .expireAfter(new Expiry<Key, Entry>() {
+                    @Override
+                    public long expireAfterCreate(Key key, Entry entry, long currentTime) {
+                        return entry.timeToLive().toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Key key, Entry entry, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, entry, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(Key key, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        this.generations = Caffeine.newBuilder()
+                .maximumSize(Math.max(1, maximumWeight / BASE_WEIGHT))
+                .expireAfterAccess(timeToLive)
+                .build();
+        this.defaultTimeToLive = timeToLive;
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "gateway-responses");
+    }
+
+    public static String item(Long itemId) {
+        return "items:" + itemId;
+    }
+
+    /**
+     * Возвращает закэшированный ответ или выполняет запрос. Ответ не сохраняется, если пока запрос
+     * был в пути, его группа была сброшена: он мог быть прочитан до изменения.
+     */
+    public ResponseEntity<Object> get(String group, String requestKey, Supplier<ResponseEntity<Object>> request) {
+        Key key = new Key(group, requestKey);
+        long generation = generation(group);
+        Entry cached = cache.getIfPresent(key);
+        if (cached != null && cached.generation() == generation) {
+            return revalidate(cached.response());
+        }
+        ResponseEntity<Object> response = request.get();
+        Duration timeToLive = timeToLive(response);
+        if (!timeToLive.isZero() && generation(group) == generation) {
+            cache.put(key, new Entry(response, timeToLive, weigh(response), generation));
+        }
+        return response;
+    }
+
+    public void evict(String group) {
+        generations.put(group, lastGeneration.incrementAndGet());
+    }
+
+    private long generation(String group) {
+        return generations.get(group, ignored -> lastGeneration.incrementAndGet());
+    }
+
+    private static ResponseEntity<Object> revalidate(ResponseEntity<Object> response) {
+        String eTag = response.getHeaders().getETag();
+        if (eTag == null || !matches(BaseClient.incomingHeader(HttpHeaders.IF_NONE_MATCH), eTag)) {
+            return response;
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(eTag);
+        String cacheControl = response.getHeaders().getCacheControl();
+        if (cacheControl != null) {
+            headers.setCacheControl(cacheControl);
+        }
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(headers).build();
+    }
+
+    /**
+     * Слабое сравнение, как для GET: W/"3" и "3" считаются одним тегом.
+     */
+    private static boolean matches(List<String> ifNoneMatch, String eTag) {
+        String tag = stripWeak(eTag);
+        for (String value : ifNoneMatch) {
+            for (String candidate : value.split(",")) {
+                String trimmed = candidate.trim();
+                if (trimmed.equals("*") || stripWeak(trimmed).equals(tag)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static String stripWeak(String eTag) {
+        return eTag.startsWith("W/") ? eTag.substring(2) : eTag;
+    }
+
+    private Duration timeToLive(ResponseEntity<Object> response) {
+        if (response.getStatusCode() != HttpStatus.OK) {
+            return Duration.ZERO;
+        }
+        String cacheControl = response.getHeaders().getCacheControl();
+        if (cacheControl == null) {
+            return defaultTimeToLive;
+        }
+        Duration timeToLive = defaultTimeToLive;
+        for (String directive : cacheControl.toLowerCase(Locale.ROOT).split(",")) {
+            String trimmed = directive.trim();
+            if (trimmed.equals("no-store") || trimmed.equals("no-cache") || trimmed.equals("private")) {
+                return Duration.ZERO;
+            }
+            if (trimmed.startsWith("max-age=") || trimmed.startsWith("s-maxage=")) {
+                Duration maxAge = parseSeconds(trimmed.substring(trimmed.indexOf('=') + 1));
+                if (maxAge.compareTo(timeToLive) < 0) {
+                    timeToLive = maxAge;
+                }
+            }
+        }
+        return timeToLive;
+    }
+
+    private static Duration parseSeconds(String value) {
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(value.replace("\"", ""))));
+        } catch (NumberFormatException e) {
+            return Duration.ZERO;
+        }
+    }
+
+    private static int weigh(ResponseEntity<Object> response) {
+        HttpHeaders headers = response.getHeaders();
+        int weight = BASE_WEIGHT + headers.size() * 64;
+        if (response.getBody() instanceof byte[] body) {
+            weight += body.length;
+        }
+        return weight;
+    }
+
+    private record Key(String group, String requestKey) {
+    }
+
+    private record Entry(ResponseEntity<Object> response, Duration timeToLive, int weight, long generation) {
+    }
+}
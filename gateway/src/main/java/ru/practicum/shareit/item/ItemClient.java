@@ -4,61 +4,102 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.GatewayResponseCache;
+import ru.practicum.shareit.client.RequestCoalescer;
 import ru.practicum.shareit.item.dto.NewCommentRequest;
 import ru.practicum.shareit.item.dto.NewItemRequest;
 import ru.practicum.shareit.item.dto.UpdateItemRequest;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Map;
 
 @Service
 public class ItemClient extends BaseClient {
     private static final String API_PREFIX = "/items";
 
+    private final GatewayResponseCache responseCache;
+
     @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemClient(@Value("${shareit-server.url}") String serverUrl,
+                      RestTemplateBuilder builder,
+                      ClientHttpRequestFactory serverRequestFactory,
+                      RequestCoalescer requestCoalescer,
+                      GatewayResponseCache responseCache) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(() -> new HttpComponentsClientHttpRequestFactory())
-                        .build()
+                        .requestFactory(() -> serverRequestFactory)
+                        .build(),
+                requestCoalescer
         );
+        this.responseCache = responseCache;
     }
 
     public ResponseEntity<Object> create(Long userId, NewItemRequest newItemRequest) {
-        return post("", userId, newItemRequest);
+        ResponseEntity<Object> response = post("", userId, newItemRequest);
+        responseCache.evict(GatewayResponseCache.SEARCH);
+        if (newItemRequest.getRequestId() != null) {
+            responseCache.evict(GatewayResponseCache.REQUESTS);
+        }
+        return response;
     }
 
     public ResponseEntity<Object> findAllByOwnerId(Long ownerId) {
         return get("", ownerId);
     }
 
-    public ResponseEntity<Object> findAllByText(Long userId, String text) {
+    public ResponseEntity<Object> findAllByText(Long userId, String text, Integer from, Integer size) {
         if (text.isBlank()) return ResponseEntity.ok(new ArrayList<>());
         Map<String, Object> parameters = Map.of(
-                "text", text
+                "text", text,
+                "from", from,
+                "size", size
         );
-        return get("/search?text={text}", userId, parameters);
+        return responseCache.get(GatewayResponseCache.SEARCH, userId + " " + from + " " + size + " " + text,
+                () -> get("/search?text={text}&from={from}&size={size}", userId, parameters));
     }
 
     public ResponseEntity<Object> findItemById(Long itemId) {
-        return get("/" + itemId);
+        return responseCache.get(GatewayResponseCache.item(itemId), "", () -> get("/" + itemId));
     }
 
     public ResponseEntity<Object> update(Long userId, Long itemId, UpdateItemRequest updateItemRequest) {
-        return patch("/" + itemId, userId, updateItemRequest);
+        ResponseEntity<Object> response = patch("/" + itemId, userId, updateItemRequest);
+        evictItem(itemId);
+        return response;
     }
 
     public ResponseEntity<Object> delete(Long userId, Long itemId) {
-        return delete("/" + itemId, userId);
+        ResponseEntity<Object> response = delete("/" + itemId, userId);
+        evictItem(itemId);
+        return response;
     }
 
     public ResponseEntity<Object> comment(Long authorId, Long itemId, NewCommentRequest request) {
-        return post("/" + itemId + "/comment", authorId, request);
+        ResponseEntity<Object> response = post("/" + itemId + "/comment", authorId, request);
+        responseCache.evict(GatewayResponseCache.item(itemId));
+        return response;
+    }
+
+    public ResponseEntity<Object> findComments(Long itemId, String after, Integer limit) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("limit", limit);
+        if (after == null) {
+            return get("/" + itemId + "/comments?limit={limit}", null, parameters);
+        }
+        parameters.put("after", after);
+        return get("/" + itemId + "/comments?limit={limit}&after={after}", null, parameters);
+    }
+
+    private void evictItem(Long itemId) {
+        responseCache.evict(GatewayResponseCache.item(itemId));
+        responseCache.evict(GatewayResponseCache.SEARCH);
+        responseCache.evict(GatewayResponseCache.REQUESTS);
     }
 
 }
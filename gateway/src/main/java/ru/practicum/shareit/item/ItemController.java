@@ -1,6 +1,9 @@
 package ru.practicum.shareit.item;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
@@ -33,9 +36,11 @@ public class ItemController {
 
     @GetMapping("/search")
     public ResponseEntity<Object> findAllByText(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                                @RequestParam("text") String text) {
-        log.info("Get items by userId={} by text={} ", userId, text);
-        return itemClient.findAllByText(userId, text);
+                                                @RequestParam("text") String text,
+                                                @RequestParam(name = "from", defaultValue = "0") @PositiveOrZero Integer from,
+                                                @RequestParam(name = "size", defaultValue = "20") @Positive @Max(100) Integer size) {
+        log.info("Get items by userId={} by text={}, from={}, size={}", userId, text, from, size);
+        return itemClient.findAllByText(userId, text, from, size);
     }
 
     @GetMapping("/{itemId}")
@@ -66,4 +71,12 @@ public class ItemController {
         log.info("Create comment by authorId={} for itemId={} with body:{}", authorId, itemId, request);
         return itemClient.comment(authorId, itemId, request);
     }
+
+    @GetMapping("/{itemId}/comments")
+    public ResponseEntity<Object> findComments(@PathVariable Long itemId,
+                                               @RequestParam(name = "after", required = false) String after,
+                                               @RequestParam(name = "limit", defaultValue = "20") @Positive @Max(100) Integer limit) {
+        log.info("Get comments for itemId={}, after={}, limit={}", itemId, after, limit);
+        return itemClient.findComments(itemId, after, limit);
+    }
 }
@@ -4,37 +4,63 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.GatewayResponseCache;
+import ru.practicum.shareit.client.RequestCoalescer;
 import ru.practicum.shareit.request.dto.NewItemRequestRequest;
 
+import java.util.HashMap;
+import java.util.Map;
+
 
 @Service
 public class ItemRequestClient extends BaseClient {
     private static final String API_PREFIX = "/requests";
 
+    private final GatewayResponseCache responseCache;
+
     @Autowired
-    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl,
+                             RestTemplateBuilder builder,
+                             ClientHttpRequestFactory serverRequestFactory,
+                             RequestCoalescer requestCoalescer,
+                             GatewayResponseCache responseCache) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(() -> new HttpComponentsClientHttpRequestFactory())
-                        .build()
+                        .requestFactory(() -> serverRequestFactory)
+                        .build(),
+                requestCoalescer
         );
+        this.responseCache = responseCache;
     }
 
     public ResponseEntity<Object> create(Long userId, NewItemRequestRequest request) {
-        return post("", userId, request);
+        ResponseEntity<Object> response = post("", userId, request);
+        responseCache.evict(GatewayResponseCache.REQUESTS);
+        return response;
     }
 
     public ResponseEntity<Object> getAllByRequestorId(Long requestorId) {
         return get("", requestorId);
     }
 
-    public ResponseEntity<Object> getAll(Long requestorId) {
-        return get("/all", requestorId);
+    public ResponseEntity<Object> getAll(Long requestorId, String after, Integer limit) {
+        return responseCache.get(GatewayResponseCache.REQUESTS, requestorId + ":" + limit + ":" + after,
+                () -> getPage(requestorId, after, limit));
+    }
+
+    private ResponseEntity<Object> getPage(Long requestorId, String after, Integer limit) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("limit", limit);
+        if (after == null) {
+            return get("/all?limit={limit}", requestorId, parameters);
+        }
+        parameters.put("after", after);
+        return get("/all?limit={limit}&after={after}", requestorId, parameters);
     }
 
     public ResponseEntity<Object> getByRequestId(Long requestorId, Long requestId) {
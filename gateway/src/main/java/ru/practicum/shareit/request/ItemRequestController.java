@@ -1,6 +1,8 @@
 package ru.practicum.shareit.request;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Positive;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
@@ -31,9 +33,11 @@ public class ItemRequestController {
     }
 
     @GetMapping("/all")
-    public ResponseEntity<Object> getAll(@RequestHeader("X-Sharer-User-Id") Long requestorId) {
-        log.info("Get all other item requests by requestorId={}", requestorId);
-        return itemRequestClient.getAll(requestorId);
+    public ResponseEntity<Object> getAll(@RequestHeader("X-Sharer-User-Id") Long requestorId,
+                                         @RequestParam(name = "after", required = false) String after,
+                                         @RequestParam(name = "limit", defaultValue = "20") @Positive @Max(100) Integer limit) {
+        log.info("Get other item requests by requestorId={}, after={}, limit={}", requestorId, after, limit);
+        return itemRequestClient.getAll(requestorId, after, limit);
     }
 
     @GetMapping("/{requestId}")
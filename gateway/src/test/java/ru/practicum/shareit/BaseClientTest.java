@@ -0,0 +1,109 @@
+package ru.practicum.shareit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.RequestCoalescer;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class BaseClientTest {
+    private MockRestServiceServer server;
+    private TestClient client;
+
+    @BeforeEach
+    void beforeEach() {
+        RestTemplate rest = new RestTemplate();
+        rest.setUriTemplateHandler(new DefaultUriBuilderFactory("http://server/items"));
+        server = MockRestServiceServer.bindTo(rest).build();
+        client = new TestClient(rest, new RequestCoalescer(new SimpleMeterRegistry()));
+    }
+
+    @AfterEach
+    void afterEach() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void get_whenServerRespondsWithJson_thenPassesBytesAndContentTypeThrough() {
+        String json = "[{\"id\":1,\"name\":\"Дрель\"}]";
+        server.expect(requestTo("http://server/items/1"))
+                .andExpect(method(HttpMethod.GET))
+                .andExpect(header("X-Sharer-User-Id", "7"))
+                .andRespond(withSuccess(json, MediaType.APPLICATION_JSON));
+
+        ResponseEntity<Object> response = client.get("/1", 7L);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        assertArrayEquals(json.getBytes(StandardCharsets.UTF_8), (byte[]) response.getBody());
+        server.verify();
+    }
+
+    @Test
+    void get_whenServerRespondsWithError_thenPassesStatusHeadersAndBodyThrough() {
+        String json = "{\"error\":\"Не найдено\"}";
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set(HttpHeaders.CONNECTION, "close");
+        server.expect(requestTo("http://server/items/2"))
+                .andRespond(withStatus(HttpStatus.NOT_FOUND).headers(headers).body(json));
+
+        ResponseEntity<Object> response = client.get("/2", 7L);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        assertTrue(response.getHeaders().getConnection().isEmpty());
+        assertArrayEquals(json.getBytes(StandardCharsets.UTF_8), (byte[]) response.getBody());
+    }
+
+    @Test
+    void get_whenClientSendsIfNoneMatch_thenForwardsItAndPassesNotModifiedThrough() {
+        MockHttpServletRequest incoming = new MockHttpServletRequest("GET", "/items/3");
+        incoming.addHeader(HttpHeaders.IF_NONE_MATCH, "\"5\"");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(incoming));
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag("\"5\"");
+        server.expect(requestTo("http://server/items/3"))
+                .andExpect(header(HttpHeaders.IF_NONE_MATCH, "\"5\""))
+                .andRespond(withStatus(HttpStatus.NOT_MODIFIED).headers(headers));
+
+        ResponseEntity<Object> response = client.get("/3", 7L);
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals("\"5\"", response.getHeaders().getETag());
+        assertNull(response.getBody());
+        server.verify();
+    }
+
+    private static class TestClient extends BaseClient {
+        TestClient(RestTemplate rest, RequestCoalescer requestCoalescer) {
+            super(rest, requestCoalescer);
+        }
+
+        @Override
+        public ResponseEntity<Object> get(String path, long userId) {
+            return super.get(path, userId);
+        }
+    }
+}
@@ -18,6 +18,7 @@ import ru.practicum.shareit.exception.ErrorHandler;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -167,6 +168,78 @@ class BookingControllerTest {
         verify(bookingClient, never()).create(any(), any());
     }
 
+    @Test
+    void createBatch_whenInvokedWithCorrectJson_thenResponseStatusOk() throws Exception {
+        String json = "[" +
+                "{\"itemId\":1,\"start\":\"2099-06-04T01:32:56\",\"end\":\"2100-06-04T01:32:57\"}," +
+                "{\"itemId\":2,\"start\":\"2099-06-04T01:32:56\",\"end\":\"2100-06-04T01:32:57\"}" +
+                "]";
+
+        when(bookingClient.createBatch(any(), anyList())).thenReturn(ResponseEntity.ok().build());
+
+        mockMvc.perform(post("/bookings/batch")
+                        .header("X-Sharer-User-Id", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json))
+                .andExpect(status().isOk());
+
+        verify(bookingClient).createBatch(eq(1L), argThat(requests -> requests.size() == 2));
+    }
+
+    @Test
+    void createBatch_whenElementInvalid_thenResponseStatusBadRequest() throws Exception {
+        String json = "[" +
+                "{\"itemId\":1,\"start\":\"2099-06-04T01:32:56\",\"end\":\"2100-06-04T01:32:57\"}," +
+                "{\"itemId\":null,\"start\":\"2099-06-04T01:32:56\",\"end\":\"2100-06-04T01:32:57\"}" +
+                "]";
+
+        mockMvc.perform(post("/bookings/batch")
+                        .header("X-Sharer-User-Id", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json))
+                .andExpect(status().isBadRequest());
+
+        verify(bookingClient, never()).createBatch(any(), anyList());
+    }
+
+    @Test
+    void createBatch_whenEmpty_thenResponseStatusBadRequest() throws Exception {
+        mockMvc.perform(post("/bookings/batch")
+                        .header("X-Sharer-User-Id", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest());
+
+        verify(bookingClient, never()).createBatch(any(), anyList());
+    }
+
+    @Test
+    void approveAll_whenInvokedWithCorrectJson_thenResponseStatusOk() throws Exception {
+        String json = "[{\"bookingId\":1,\"approved\":true},{\"bookingId\":2,\"approved\":false}]";
+
+        when(bookingClient.approveBookings(any(), anyList())).thenReturn(ResponseEntity.ok().build());
+
+        mockMvc.perform(patch("/bookings/approve")
+                        .header("X-Sharer-User-Id", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json))
+                .andExpect(status().isOk());
+
+        verify(bookingClient).approveBookings(eq(1L), argThat(decisions -> decisions.size() == 2
+                && decisions.get(0).getApproved() && !decisions.get(1).getApproved()));
+    }
+
+    @Test
+    void approveAll_whenDecisionMissing_thenResponseStatusBadRequest() throws Exception {
+        mockMvc.perform(patch("/bookings/approve")
+                        .header("X-Sharer-User-Id", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"bookingId\":1}]"))
+                .andExpect(status().isBadRequest());
+
+        verify(bookingClient, never()).approveBookings(any(), anyList());
+    }
+
     @Test
     void approve_whenInvoked_thenResponseStatusOk() throws Exception {
         Long userId = 1L;
@@ -256,7 +329,7 @@ class BookingControllerTest {
     void findAllByBookerIdAndState_whenInvoked_thenResponseStatusOk() throws Exception {
         Long userId = 1L;
 
-        when(bookingClient.findAllByBookerIdAndState(any(), any())).thenReturn(ResponseEntity.ok().build());
+        when(bookingClient.findAllByBookerIdAndState(any(), any(), any(), any())).thenReturn(ResponseEntity.ok().build());
 
         mockMvc.perform(get("/bookings")
                         .header("X-Sharer-User-Id", userId)
@@ -266,7 +339,7 @@ class BookingControllerTest {
 
         ArgumentCaptor<Long> captor1 = ArgumentCaptor.forClass(Long.class);
         ArgumentCaptor<BookingState> captor2 = ArgumentCaptor.forClass(BookingState.class);
-        verify(bookingClient).findAllByBookerIdAndState(captor1.capture(), captor2.capture());
+        verify(bookingClient).findAllByBookerIdAndState(captor1.capture(), captor2.capture(), any(), any());
 
         Long arg1 = captor1.getValue();
         BookingState arg2 = captor2.getValue();
@@ -279,7 +352,7 @@ class BookingControllerTest {
     void findAllByBookerIdAndState_whenInvokedWOParam_thenResponseStatusOk() throws Exception {
         Long userId = 1L;
 
-        when(bookingClient.findAllByBookerIdAndState(any(), any())).thenReturn(ResponseEntity.ok().build());
+        when(bookingClient.findAllByBookerIdAndState(any(), any(), any(), any())).thenReturn(ResponseEntity.ok().build());
 
         mockMvc.perform(get("/bookings")
                         .header("X-Sharer-User-Id", userId)
@@ -288,7 +361,7 @@ class BookingControllerTest {
 
         ArgumentCaptor<Long> captor1 = ArgumentCaptor.forClass(Long.class);
         ArgumentCaptor<BookingState> captor2 = ArgumentCaptor.forClass(BookingState.class);
-        verify(bookingClient).findAllByBookerIdAndState(captor1.capture(), captor2.capture());
+        verify(bookingClient).findAllByBookerIdAndState(captor1.capture(), captor2.capture(), any(), any());
 
         Long arg1 = captor1.getValue();
         BookingState arg2 = captor2.getValue();
@@ -307,7 +380,7 @@ class BookingControllerTest {
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isBadRequest());
 
-        verify(bookingClient, never()).findAllByBookerIdAndState(any(), any());
+        verify(bookingClient, never()).findAllByBookerIdAndState(any(), any(), any(), any());
     }
 
     @Test
@@ -316,14 +389,14 @@ class BookingControllerTest {
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isBadRequest());
 
-        verify(bookingClient, never()).findAllByBookerIdAndState(any(), any());
+        verify(bookingClient, never()).findAllByBookerIdAndState(any(), any(), any(), any());
     }
 
     @Test
     void findAllByOwnerIdAndState_whenInvoked_thenResponseStatusOk() throws Exception {
         Long userId = 1L;
 
-        when(bookingClient.findAllByOwnerIdAndState(any(), any())).thenReturn(ResponseEntity.ok().build());
+        when(bookingClient.findAllByOwnerIdAndState(any(), any(), any(), any())).thenReturn(ResponseEntity.ok().build());
 
         mockMvc.perform(get("/bookings/owner")
                         .header("X-Sharer-User-Id", userId)
@@ -333,7 +406,7 @@ class BookingControllerTest {
 
         ArgumentCaptor<Long> captor1 = ArgumentCaptor.forClass(Long.class);
         ArgumentCaptor<BookingState> captor2 = ArgumentCaptor.forClass(BookingState.class);
-        verify(bookingClient).findAllByOwnerIdAndState(captor1.capture(), captor2.capture());
+        verify(bookingClient).findAllByOwnerIdAndState(captor1.capture(), captor2.capture(), any(), any());
 
         Long arg1 = captor1.getValue();
         BookingState arg2 = captor2.getValue();
@@ -342,11 +415,34 @@ class BookingControllerTest {
         assertEquals(BookingState.WAITING, arg2);
     }
 
+    @Test
+    void findOwnerSummary_whenInvoked_thenResponseStatusOk() throws Exception {
+        when(bookingClient.findOwnerSummary(any(), any(), any())).thenReturn(ResponseEntity.ok().build());
+
+        mockMvc.perform(get("/bookings/owner/summary")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("state", "future")
+                        .param("limit", "5"))
+                .andExpect(status().isOk());
+
+        verify(bookingClient).findOwnerSummary(1L, BookingState.FUTURE, 5);
+    }
+
+    @Test
+    void findOwnerSummary_whenLimitTooLarge_thenResponseStatusBadRequest() throws Exception {
+        mockMvc.perform(get("/bookings/owner/summary")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("limit", "101"))
+                .andExpect(status().isBadRequest());
+
+        verify(bookingClient, never()).findOwnerSummary(any(), any(), any());
+    }
+
     @Test
     void findAllByOwnerIdAndState_whenInvokedWOParam_thenResponseStatusOk() throws Exception {
         Long userId = 1L;
 
-        when(bookingClient.findAllByOwnerIdAndState(any(), any())).thenReturn(ResponseEntity.ok().build());
+        when(bookingClient.findAllByOwnerIdAndState(any(), any(), any(), any())).thenReturn(ResponseEntity.ok().build());
 
         mockMvc.perform(get("/bookings/owner")
                         .header("X-Sharer-User-Id", userId)
@@ -355,7 +451,7 @@ class BookingControllerTest {
 
         ArgumentCaptor<Long> captor1 = ArgumentCaptor.forClass(Long.class);
         ArgumentCaptor<BookingState> captor2 = ArgumentCaptor.forClass(BookingState.class);
-        verify(bookingClient).findAllByOwnerIdAndState(captor1.capture(), captor2.capture());
+        verify(bookingClient).findAllByOwnerIdAndState(captor1.capture(), captor2.capture(), any(), any());
 
         Long arg1 = captor1.getValue();
         BookingState arg2 = captor2.getValue();
@@ -374,7 +470,7 @@ class BookingControllerTest {
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isBadRequest());
 
-        verify(bookingClient, never()).findAllByOwnerIdAndState(any(), any());
+        verify(bookingClient, never()).findAllByOwnerIdAndState(any(), any(), any(), any());
     }
 
     @Test
@@ -383,6 +479,31 @@ class BookingControllerTest {
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isBadRequest());
 
-        verify(bookingClient, never()).findAllByOwnerIdAndState(any(), any());
+        verify(bookingClient, never()).findAllByOwnerIdAndState(any(), any(), any(), any());
+    }
+
+    @Test
+    void findAllByOwnerIdAndState_whenInvokedWithCursor_thenPassesPageParameters() throws Exception {
+        Long userId = 1L;
+
+        when(bookingClient.findAllByOwnerIdAndState(any(), any(), any(), any())).thenReturn(ResponseEntity.ok().build());
+
+        mockMvc.perform(get("/bookings/owner")
+                        .header("X-Sharer-User-Id", userId)
+                        .param("after", "2099-06-04T01:32:56_15")
+                        .param("limit", "50"))
+                .andExpect(status().isOk());
+
+        verify(bookingClient).findAllByOwnerIdAndState(userId, BookingState.ALL, "2099-06-04T01:32:56_15", 50);
+    }
+
+    @Test
+    void findAllByBookerIdAndState_whenLimitExceedsMax_thenResponseStatusBadRequest() throws Exception {
+        mockMvc.perform(get("/bookings")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("limit", "1000"))
+                .andExpect(status().isBadRequest());
+
+        verify(bookingClient, never()).findAllByBookerIdAndState(any(), any(), any(), any());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,127 @@
+package ru.practicum.shareit;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Нагрузочное сравнение режимов шлюза против локальной заглушки сервера, отвечающей с задержкой.
+ * Печатает число ошибок, пропускную способность и p50/p99 для каждого уровня одновременных соединений.
+ * Запуск: mvn -pl gateway test -Dtest=GatewayLoadTest -Dshareit.load-test=true [-Dspring.threads.virtual.enabled=true]
+ */
+@EnabledIfSystemProperty(named = "shareit.load-test", matches = "true")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "logging.level.org.springframework.web.client.RestTemplate=INFO",
+        "server.tomcat.max-connections=20000",
+        "server.tomcat.accept-count=10000"
+})
+class GatewayLoadTest {
+    private static final Duration SERVER_DELAY = Duration.ofMillis(50);
+    private static final byte[] ITEM_JSON = "{\"id\":1,\"name\":\"Дрель\",\"available\":true}"
+            .getBytes(StandardCharsets.UTF_8);
+    private static final ExecutorService STUB_EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+    private static final HttpServer STUB_SERVER = startStubServer();
+
+    @LocalServerPort
+    private int port;
+
+    @DynamicPropertySource
+    static void serverUrl(DynamicPropertyRegistry registry) {
+        registry.add("shareit-server.url", () -> "http://localhost:" + STUB_SERVER.getAddress().getPort());
+    }
+
+    @AfterAll
+    static void afterAll() {
+        STUB_SERVER.stop(0);
+        STUB_EXECUTOR.shutdownNow();
+    }
+
+    @ParameterizedTest(name = "{0} одновременных соединений")
+    @ValueSource(ints = {1_000, 5_000, 10_000})
+    void getItem_whenConcurrentConnections_thenReportsLatency(int connections) {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/items/1"))
+                .header("X-Sharer-User-Id", "1")
+                .timeout(Duration.ofMinutes(2))
+                .build();
+
+        long start = System.nanoTime();
+        List<CompletableFuture<Long>> responses = new ArrayList<>();
+        for (int i = 0; i < connections; i++) {
+            long sent = System.nanoTime();
+            responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .thenApply(response -> response.statusCode() == 200 ? System.nanoTime() - sent : -1L)
+                    .exceptionally(e -> -1L));
+        }
+        List<Long> latencies = responses.stream().map(CompletableFuture::join).sorted().toList();
+        long elapsed = System.nanoTime() - start;
+
+        long failed = latencies.stream().filter(latency -> latency < 0).count();
+        List<Long> succeeded = latencies.stream().filter(latency -> latency >= 0).toList();
+        System.out.printf("virtual=%s connections=%d failed=%d rps=%.0f p50=%dms p99=%dms%n",
+                System.getProperty("spring.threads.virtual.enabled", "false"),
+                connections,
+                failed,
+                succeeded.size() / (elapsed / 1e9),
+                percentile(succeeded, 0.50) / 1_000_000,
+                percentile(succeeded, 0.99) / 1_000_000);
+        assertEquals(connections, latencies.size());
+    }
+
+    private static long percentile(List<Long> sorted, double percentile) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        return sorted.get((int) Math.min(sorted.size() - 1, Math.ceil(percentile * sorted.size()) - 1));
+    }
+
+    private static HttpServer startStubServer() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 10_000);
+            server.setExecutor(STUB_EXECUTOR);
+            server.createContext("/", exchange -> {
+                try {
+                    Thread.sleep(SERVER_DELAY);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, ITEM_JSON.length);
+                try (OutputStream body = exchange.getResponseBody()) {
+                    body.write(ITEM_JSON);
+                }
+            });
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package ru.practicum.shareit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import ru.practicum.shareit.client.GatewayResponseCache;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GatewayResponseCacheTest {
+    private GatewayResponseCache responseCache;
+    private AtomicInteger calls;
+
+    @BeforeEach
+    void beforeEach() {
+        responseCache = new GatewayResponseCache(1_000_000, Duration.ofMinutes(1), new SimpleMeterRegistry());
+        calls = new AtomicInteger();
+    }
+
+    @AfterEach
+    void afterEach() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void get_whenCached_thenDoesNotCallServer() {
+        ResponseEntity<Object> first = responseCache.get(GatewayResponseCache.item(1L), "", () -> ok("item"));
+        ResponseEntity<Object> second = responseCache.get(GatewayResponseCache.item(1L), "", () -> ok("item"));
+
+        assertSame(first, second);
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void get_whenNotOk_thenDoesNotCache() {
+        responseCache.get(GatewayResponseCache.item(1L), "", this::notFound);
+        responseCache.get(GatewayResponseCache.item(1L), "", this::notFound);
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void get_whenServerForbidsCaching_thenDoesNotCache() {
+        responseCache.get(GatewayResponseCache.SEARCH, "1", () -> ok("item", "no-store"));
+        responseCache.get(GatewayResponseCache.SEARCH, "1", () -> ok("item", "no-store"));
+        responseCache.get(GatewayResponseCache.SEARCH, "2", () -> ok("item", "max-age=0"));
+        responseCache.get(GatewayResponseCache.SEARCH, "2", () -> ok("item", "max-age=0"));
+
+        assertEquals(4, calls.get());
+    }
+
+    @Test
+    void get_whenServerSendsEtag_thenCachedResponseKeepsIt() {
+        responseCache.get(GatewayResponseCache.item(1L), "", () -> ResponseEntity.ok().eTag("\"3\"").body(body("item")));
+
+        ResponseEntity<Object> cached = responseCache.get(GatewayResponseCache.item(1L), "", () -> ok("other"));
+
+        assertEquals("\"3\"", cached.getHeaders().getETag());
+    }
+
+    @Test
+    void get_whenIfNoneMatchEqualsCachedEtag_thenReturnsNotModified() {
+        responseCache.get(GatewayResponseCache.item(1L), "", () -> ResponseEntity.ok().eTag("\"3\"").body(body("item")));
+        conditionalRequest("\"2\", W/\"3\"");
+
+        ResponseEntity<Object> response = responseCache.get(GatewayResponseCache.item(1L), "", () -> ok("other"));
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals("\"3\"", response.getHeaders().getETag());
+        assertNull(response.getBody());
+        assertEquals(0, calls.get());
+    }
+
+    @Test
+    void get_whenIfNoneMatchDiffersFromCachedEtag_thenReturnsCachedBody() {
+        ResponseEntity<Object> cached = responseCache.get(GatewayResponseCache.item(1L), "",
+                () -> ResponseEntity.ok().eTag("\"4\"").body(body("item")));
+        conditionalRequest("\"3\"");
+
+        ResponseEntity<Object> response = responseCache.get(GatewayResponseCache.item(1L), "", () -> ok("other"));
+
+        assertSame(cached, response);
+    }
+
+    @Test
+    void evict_whenGroupEvicted_thenOnlyThatGroupIsReloaded() {
+        responseCache.get(GatewayResponseCache.item(1L), "", () -> ok("item1"));
+        responseCache.get(GatewayResponseCache.item(2L), "", () -> ok("item2"));
+
+        responseCache.evict(GatewayResponseCache.item(1L));
+        responseCache.get(GatewayResponseCache.item(1L), "", () -> ok("item1"));
+        responseCache.get(GatewayResponseCache.item(2L), "", () -> ok("item2"));
+
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    void get_whenEvictedWhileRequestInFlight_thenDoesNotCacheStaleResponse() {
+        responseCache.get(GatewayResponseCache.item(1L), "", () -> {
+            responseCache.evict(GatewayResponseCache.item(1L));
+            return ok("stale");
+        });
+        responseCache.get(GatewayResponseCache.item(1L), "", () -> ok("fresh"));
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void get_whenOtherGroupEvictedWhileRequestInFlight_thenStillCaches() {
+        responseCache.get(GatewayResponseCache.item(1L), "", () -> {
+            responseCache.evict(GatewayResponseCache.item(2L));
+            responseCache.evict(GatewayResponseCache.SEARCH);
+            return ok("item1");
+        });
+        responseCache.get(GatewayResponseCache.item(1L), "", () -> ok("item1"));
+
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void evict_whenGroupEvictedTwice_thenReloadsOnceAndCachesAgain() {
+        responseCache.get(GatewayResponseCache.SEARCH, "1", () -> ok("items"));
+
+        responseCache.evict(GatewayResponseCache.SEARCH);
+        responseCache.evict(GatewayResponseCache.SEARCH);
+        responseCache.get(GatewayResponseCache.SEARCH, "1", () -> ok("items"));
+        responseCache.get(GatewayResponseCache.SEARCH, "1", () -> ok("items"));
+
+        assertEquals(2, calls.get());
+    }
+
+    private static void conditionalRequest(String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/items/1");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    private ResponseEntity<Object> ok(String body) {
+        calls.incrementAndGet();
+        return ResponseEntity.ok(body(body));
+    }
+
+    private ResponseEntity<Object> ok(String body, String cacheControl) {
+        calls.incrementAndGet();
+        return ResponseEntity.ok().header("Cache-Control", cacheControl).body(body(body));
+    }
+
+    private ResponseEntity<Object> notFound() {
+        calls.incrementAndGet();
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+    }
+
+    private static Object body(String value) {
+        return value.getBytes();
+    }
+}
@@ -231,7 +231,7 @@ class ItemControllerTest {
     void findAllByText_whenInvoked_thenResponseStatusOk() throws Exception {
         Long userId = 1L;
         String text = "text";
-        when(itemClient.findAllByText(any(), any())).thenReturn(ResponseEntity.ok().build());
+        when(itemClient.findAllByText(any(), any(), any(), any())).thenReturn(ResponseEntity.ok().build());
 
         mockMvc.perform(get("/items/search")
                         .header("X-Sharer-User-Id", userId)
@@ -241,7 +241,7 @@ class ItemControllerTest {
 
         ArgumentCaptor<Long> captor1 = ArgumentCaptor.forClass(Long.class);
         ArgumentCaptor<String> captor2 = ArgumentCaptor.forClass(String.class);
-        verify(itemClient).findAllByText(captor1.capture(), captor2.capture());
+        verify(itemClient).findAllByText(captor1.capture(), captor2.capture(), eq(0), eq(20));
 
         Long arg1 = captor1.getValue();
         String arg2 = captor2.getValue();
@@ -258,7 +258,7 @@ class ItemControllerTest {
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isBadRequest());
 
-        verify(itemClient, never()).findAllByText(any(), any());
+        verify(itemClient, never()).findAllByText(any(), any(), any(), any());
     }
 
     @Test
@@ -269,7 +269,35 @@ class ItemControllerTest {
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isBadRequest());
 
-        verify(itemClient, never()).findAllByText(any(), any());
+        verify(itemClient, never()).findAllByText(any(), any(), any(), any());
+    }
+
+    @Test
+    void findAllByText_whenPageRequested_thenPassesFromAndSize() throws Exception {
+        Long userId = 1L;
+        when(itemClient.findAllByText(any(), any(), any(), any())).thenReturn(ResponseEntity.ok().build());
+
+        mockMvc.perform(get("/items/search")
+                        .header("X-Sharer-User-Id", userId)
+                        .param("text", "text")
+                        .param("from", "40")
+                        .param("size", "10")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        verify(itemClient).findAllByText(userId, "text", 40, 10);
+    }
+
+    @Test
+    void findAllByText_whenSizeTooLarge_thenResponseStatusBadRequest() throws Exception {
+        mockMvc.perform(get("/items/search")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("text", "text")
+                        .param("size", "1000")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+
+        verify(itemClient, never()).findAllByText(any(), any(), any(), any());
     }
 
     @Test
@@ -404,6 +432,28 @@ class ItemControllerTest {
 
     }
 
+    @Test
+    void findComments_whenCursorAndLimitGiven_thenPassesThem() throws Exception {
+        Long itemId = 1L;
+        when(itemClient.findComments(any(), any(), any())).thenReturn(ResponseEntity.ok().build());
+
+        mockMvc.perform(get("/items/{itemId}/comments", itemId)
+                        .param("after", "2025-06-01T10:00:00_42")
+                        .param("limit", "5"))
+                .andExpect(status().isOk());
+
+        verify(itemClient).findComments(itemId, "2025-06-01T10:00:00_42", 5);
+    }
+
+    @Test
+    void findComments_whenLimitTooLarge_thenResponseStatusBadRequest() throws Exception {
+        mockMvc.perform(get("/items/{itemId}/comments", 1L)
+                        .param("limit", "1000"))
+                .andExpect(status().isBadRequest());
+
+        verify(itemClient, never()).findComments(any(), any(), any());
+    }
+
     @Test
     void comment_whenInvokedWOHeader_thenResponseStatusBadRequest() throws Exception {
         Long itemId = 1L;
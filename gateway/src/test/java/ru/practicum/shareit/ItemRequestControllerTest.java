@@ -147,7 +147,7 @@ class ItemRequestControllerTest {
     void getAll_whenInvoked_thenResponseStatusOk() throws Exception {
         Long userId = 1L;
 
-        when(itemRequestClient.getAll(any())).thenReturn(ResponseEntity.ok().build());
+        when(itemRequestClient.getAll(any(), any(), any())).thenReturn(ResponseEntity.ok().build());
 
         mockMvc.perform(get("/requests/all")
                         .header("X-Sharer-User-Id", userId)
@@ -155,20 +155,43 @@ class ItemRequestControllerTest {
                 .andExpect(status().isOk());
 
         ArgumentCaptor<Long> captor1 = ArgumentCaptor.forClass(Long.class);
-        verify(itemRequestClient).getAll(captor1.capture());
+        verify(itemRequestClient).getAll(captor1.capture(), isNull(), eq(20));
 
         Long arg1 = captor1.getValue();
 
         assertEquals(userId, arg1);
     }
 
+    @Test
+    void getAll_whenInvokedWithCursor_thenPassesCursorAndLimit() throws Exception {
+        when(itemRequestClient.getAll(any(), any(), any())).thenReturn(ResponseEntity.ok().build());
+
+        mockMvc.perform(get("/requests/all")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("after", "2025-06-01T10:00:00_42")
+                        .param("limit", "5"))
+                .andExpect(status().isOk());
+
+        verify(itemRequestClient).getAll(1L, "2025-06-01T10:00:00_42", 5);
+    }
+
+    @Test
+    void getAll_whenLimitTooLarge_thenResponseStatusBadRequest() throws Exception {
+        mockMvc.perform(get("/requests/all")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("limit", "101"))
+                .andExpect(status().isBadRequest());
+
+        verify(itemRequestClient, never()).getAll(any(), any(), any());
+    }
+
     @Test
     void getAll_whenInvokedWOHeader_thenResponseStatusBadRequest() throws Exception {
         mockMvc.perform(get("/requests/all")
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isBadRequest());
 
-        verify(itemRequestClient, never()).getAll(any());
+        verify(itemRequestClient, never()).getAll(any(), any(), any());
     }
 
     @Test
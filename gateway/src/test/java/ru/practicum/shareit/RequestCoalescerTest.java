@@ -0,0 +1,92 @@
+package ru.practicum.shareit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import ru.practicum.shareit.client.RequestCoalescer;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestCoalescerTest {
+    private SimpleMeterRegistry meterRegistry;
+    private RequestCoalescer requestCoalescer;
+
+    @BeforeEach
+    void beforeEach() {
+        meterRegistry = new SimpleMeterRegistry();
+        requestCoalescer = new RequestCoalescer(meterRegistry);
+    }
+
+    @Test
+    void execute_whenIdenticalRequestsInFlight_thenForwardsOnce() throws Exception {
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        ResponseEntity<Object> expected = ResponseEntity.ok("item");
+
+        CompletableFuture<ResponseEntity<Object>> leader = CompletableFuture.supplyAsync(() ->
+                requestCoalescer.execute("GET /items/1 1", () -> {
+                    calls.incrementAndGet();
+                    leaderStarted.countDown();
+                    await(release);
+                    return expected;
+                }));
+        assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+        CompletableFuture<ResponseEntity<Object>> follower = CompletableFuture.supplyAsync(() ->
+                requestCoalescer.execute("GET /items/1 1", () -> {
+                    calls.incrementAndGet();
+                    return ResponseEntity.ok("other");
+                }));
+        while (count("coalesced") == 0) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        assertSame(expected, leader.get(5, TimeUnit.SECONDS));
+        assertSame(expected, follower.get(5, TimeUnit.SECONDS));
+        assertEquals(1, calls.get());
+        assertEquals(1, count("forwarded"));
+        assertEquals(1, count("coalesced"));
+    }
+
+    @Test
+    void execute_whenPreviousRequestFinished_thenForwardsAgain() {
+        AtomicInteger calls = new AtomicInteger();
+
+        requestCoalescer.execute("GET /items/1 1", () -> ResponseEntity.ok(calls.incrementAndGet()));
+        requestCoalescer.execute("GET /items/1 1", () -> ResponseEntity.ok(calls.incrementAndGet()));
+        requestCoalescer.execute("GET /items/1 2", () -> ResponseEntity.ok(calls.incrementAndGet()));
+
+        assertEquals(3, calls.get());
+        assertEquals(3, count("forwarded"));
+        assertEquals(0, count("coalesced"));
+    }
+
+    @Test
+    void execute_whenRequestFails_thenRethrowsAndForgetsKey() {
+        assertThrows(IllegalStateException.class, () -> requestCoalescer.execute("GET /items/1 1", () -> {
+            throw new IllegalStateException("server unavailable");
+        }));
+
+        assertEquals(ResponseEntity.ok("item"),
+                requestCoalescer.execute("GET /items/1 1", () -> ResponseEntity.ok("item")));
+    }
+
+    private double count(String result) {
+        return meterRegistry.get("shareit.gateway.coalescing").tag("result", result).counter().count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
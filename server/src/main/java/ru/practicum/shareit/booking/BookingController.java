@@ -1,9 +1,14 @@
 package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.pagination.Cursor;
+import ru.practicum.shareit.util.OptimisticLockRetry;
 
 import java.util.Collection;
+import java.util.List;
 
 
 @RestController
@@ -11,6 +16,7 @@ import java.util.Collection;
 @RequestMapping(path = "/bookings")
 public class BookingController {
     private final BookingService bookingService;
+    private final OptimisticLockRetry optimisticLockRetry;
 
     @PostMapping
     public BookingDto create(@RequestHeader("X-Sharer-User-Id") Long userId,
@@ -18,27 +24,56 @@ public class BookingController {
         return bookingService.save(userId, newBookingRequest);
     }
 
+    @PostMapping("/batch")
+    public List<BookingBatchResult> createBatch(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                @RequestBody List<NewBookingRequest> newBookingRequests) {
+        return bookingService.saveAll(userId, newBookingRequests);
+    }
+
+    @PatchMapping("/approve")
+    public List<BookingApprovalResult> approveAll(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                  @RequestBody List<BookingDecision> decisions) {
+        return bookingService.approveBookings(userId, decisions);
+    }
+
     @PatchMapping("/{bookingId}")
     public BookingDto approve(@RequestHeader("X-Sharer-User-Id") Long userId,
                               @PathVariable Long bookingId, @RequestParam("approved") Boolean isApproved) {
-        return bookingService.approveBooking(userId, bookingId, isApproved);
+        return optimisticLockRetry.execute("PATCH /bookings/{bookingId}",
+                () -> bookingService.approveBooking(userId, bookingId, isApproved));
     }
 
     @GetMapping("/{bookingId}")
-    public BookingDto findBookingById(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                      @PathVariable Long bookingId) {
-        return bookingService.findBookingById(userId, bookingId);
+    public ResponseEntity<BookingDto> findBookingById(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                      @PathVariable Long bookingId,
+                                                      WebRequest request) {
+        String eTag = bookingService.findBookingETag(userId, bookingId);
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(eTag).body(bookingService.findBookingById(userId, bookingId));
     }
 
     @GetMapping
     public Collection<BookingDto> findAllByBookerIdAndState(@RequestHeader("X-Sharer-User-Id") Long bookerId,
-                                                            @RequestParam(required = false, defaultValue = "all") String state) {
-        return bookingService.findAllByBookerIdAndState(bookerId, BookingState.from(state));
+                                                            @RequestParam(required = false, defaultValue = "all") String state,
+                                                            @RequestParam(required = false) String after,
+                                                            @RequestParam(required = false, defaultValue = "20") Integer limit) {
+        return bookingService.findAllByBookerIdAndState(bookerId, BookingState.from(state), Cursor.from(after), limit);
     }
 
     @GetMapping("/owner")
     public Collection<BookingDto> findAllByOwnerIdAndState(@RequestHeader("X-Sharer-User-Id") Long ownerId,
-                                                           @RequestParam(required = false, defaultValue = "all") String state) {
-        return bookingService.findAllByOwnerIdAndState(ownerId, BookingState.from(state));
+                                                           @RequestParam(required = false, defaultValue = "all") String state,
+                                                           @RequestParam(required = false) String after,
+                                                           @RequestParam(required = false, defaultValue = "20") Integer limit) {
+        return bookingService.findAllByOwnerIdAndState(ownerId, BookingState.from(state), Cursor.from(after), limit);
+    }
+
+    @GetMapping("/owner/summary")
+    public OwnerBookingSummaryDto findOwnerSummary(@RequestHeader("X-Sharer-User-Id") Long ownerId,
+                                                   @RequestParam(required = false, defaultValue = "all") String state,
+                                                   @RequestParam(required = false, defaultValue = "20") Integer limit) {
+        return bookingService.findOwnerSummary(ownerId, BookingState.from(state), limit);
     }
 }
@@ -0,0 +1,162 @@
+package ru.practicum.shareit.booking;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.util.TransactionHooks;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Индекс активных (WAITING/APPROVED) интервалов бронирования по каждому предмету.
+ * Новые интервалы не пересекаются с уже занятыми, но в загруженных из БД данных пересечения возможны,
+ * поэтому кроме самих интервалов хранится их объединение: непересекающиеся занятые отрезки start -> end.
+ * Проверка пересечения сводится к одному lowerEntry по отрезкам за O(log n), а снятие бронирования
+ * пересобирает только тот отрезок, в который оно входило.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookingIntervalIndex {
+    static final Set<BookingStatus> ACTIVE_STATUSES = EnumSet.of(BookingStatus.WAITING, BookingStatus.APPROVED);
+
+    private final BookingStorage bookingRepository;
+    private final Map<Long, ItemIntervals> intervalsByItem = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void warmUp() {
+        Collection<Booking> bookings = bookingRepository.findByStatusInAndEndAfter(ACTIVE_STATUSES, LocalDateTime.now());
+        for (Booking booking : bookings) {
+            ItemIntervals intervals = intervalsFor(booking.getItem().getId());
+            synchronized (intervals) {
+                intervals.put(normalize(booking.getStart()), normalize(booking.getEnd()));
+            }
+        }
+        log.info("Индекс интервалов бронирования загружен: {} активных бронирований", bookings.size());
+    }
+
+    public boolean tryReserve(Long itemId, LocalDateTime start, LocalDateTime end) {
+        LocalDateTime normalizedStart = normalize(start);
+        LocalDateTime normalizedEnd = normalize(end);
+        ItemIntervals intervals = intervalsFor(itemId);
+        synchronized (intervals) {
+            intervals.pruneEnded(LocalDateTime.now());
+            if (intervals.overlaps(normalizedStart, normalizedEnd)) {
+                return false;
+            }
+            intervals.put(normalizedStart, normalizedEnd);
+        }
+        TransactionHooks.afterRollback(() -> remove(itemId, normalizedStart, normalizedEnd));
+        return true;
+    }
+
+    public void release(Booking booking) {
+        release(booking.getItem().getId(), booking.getStart(), booking.getEnd());
+    }
+
+    public void release(Long itemId, LocalDateTime start, LocalDateTime end) {
+        LocalDateTime normalizedStart = normalize(start);
+        LocalDateTime normalizedEnd = normalize(end);
+        TransactionHooks.afterCommit(() -> remove(itemId, normalizedStart, normalizedEnd));
+    }
+
+    private void remove(Long itemId, LocalDateTime start, LocalDateTime end) {
+        ItemIntervals intervals = intervalsByItem.get(itemId);
+        if (intervals == null) {
+            return;
+        }
+        synchronized (intervals) {
+            intervals.remove(start, end);
+        }
+    }
+
+    private ItemIntervals intervalsFor(Long itemId) {
+        return intervalsByItem.computeIfAbsent(itemId, id -> new ItemIntervals());
+    }
+
+    private static LocalDateTime normalize(LocalDateTime dateTime) {
+        return dateTime.truncatedTo(ChronoUnit.MICROS);
+    }
+
+    /**
+     * Интервалы одного предмета. Для одного start хранится список окончаний: бронирования могут
+     * начинаться одновременно, и снятие каждого из них должно освобождать только его собственный интервал.
+     * Отрезки в blocked не пересекаются (касаться могут) и покрывают ровно объединение интервалов.
+     */
+    private static class ItemIntervals {
+        private final NavigableMap<LocalDateTime, List<LocalDateTime>> bookings = new TreeMap<>();
+        private final NavigableMap<LocalDateTime, LocalDateTime> blocked = new TreeMap<>();
+
+        void put(LocalDateTime start, LocalDateTime end) {
+            bookings.computeIfAbsent(start, key -> new ArrayList<>(1)).add(end);
+            block(start, end);
+        }
+
+        void remove(LocalDateTime start, LocalDateTime end) {
+            List<LocalDateTime> ends = bookings.get(start);
+            if (ends == null || !ends.remove(end)) {
+                return;
+            }
+            if (ends.isEmpty()) {
+                bookings.remove(start);
+            }
+            if (!start.isBefore(end)) {
+                return;
+            }
+            Map.Entry<LocalDateTime, LocalDateTime> segment = blocked.floorEntry(start);
+            blocked.remove(segment.getKey());
+            bookings.subMap(segment.getKey(), true, segment.getValue(), false)
+                    .forEach((bookingStart, bookingEnds) -> bookingEnds.forEach(
+                            bookingEnd -> block(bookingStart, bookingEnd)));
+        }
+
+        boolean overlaps(LocalDateTime start, LocalDateTime end) {
+            Map.Entry<LocalDateTime, LocalDateTime> previous = blocked.lowerEntry(end);
+            return previous != null && previous.getValue().isAfter(start);
+        }
+
+        /**
+         * Отрезки упорядочены и не пересекаются, поэтому закончившиеся всегда идут первыми.
+         */
+        void pruneEnded(LocalDateTime now) {
+            while (!blocked.isEmpty() && !blocked.firstEntry().getValue().isAfter(now)) {
+                Map.Entry<LocalDateTime, LocalDateTime> segment = blocked.pollFirstEntry();
+                bookings.headMap(segment.getValue(), false).clear();
+            }
+        }
+
+        /**
+         * Сливает интервал со всеми пересекающимися с ним отрезками. Пустой интервал ничего не занимает.
+         */
+        private void block(LocalDateTime start, LocalDateTime end) {
+            if (!start.isBefore(end)) {
+                return;
+            }
+            LocalDateTime segmentStart = start;
+            LocalDateTime segmentEnd = end;
+            Map.Entry<LocalDateTime, LocalDateTime> previous = blocked.lowerEntry(segmentEnd);
+            while (previous != null && previous.getValue().isAfter(segmentStart)) {
+                blocked.remove(previous.getKey());
+                if (previous.getKey().isBefore(segmentStart)) {
+                    segmentStart = previous.getKey();
+                }
+                if (previous.getValue().isAfter(segmentEnd)) {
+                    segmentEnd = previous.getValue();
+                }
+                previous = blocked.lowerEntry(segmentEnd);
+            }
+            blocked.put(segmentStart, segmentEnd);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package ru.practicum.shareit.booking;
 
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
+import ru.practicum.shareit.booking.summary.BookingSnapshot;
 import ru.practicum.shareit.item.Item;
 import ru.practicum.shareit.item.ItemShortDto;
 import ru.practicum.shareit.user.User;
@@ -23,6 +24,31 @@ public final class BookingMapper {
         return bookingDto;
     }
 
+    public static BookingDto mapToBookingDto(BookingRow row) {
+        ItemShortDto itemShortDto = new ItemShortDto();
+        itemShortDto.setId(row.getItemId());
+        itemShortDto.setName(row.getItemName());
+        itemShortDto.setAvailable(row.getItemAvailable());
+        itemShortDto.setOwnerId(row.getOwnerId());
+        itemShortDto.setOwnerEmail(row.getOwnerEmail());
+
+        UserDto userDto = new UserDto();
+        userDto.setId(row.getBookerId());
+        userDto.setName(row.getBookerName());
+        userDto.setEmail(row.getBookerEmail());
+
+        BookingDto bookingDto = new BookingDto();
+
+        bookingDto.setId(row.getId());
+        bookingDto.setStart(row.getStart());
+        bookingDto.setEnd(row.getEnd());
+        bookingDto.setItem(itemShortDto);
+        bookingDto.setBooker(userDto);
+        bookingDto.setStatus(row.getStatus());
+
+        return bookingDto;
+    }
+
     public static BookingShortDto mapToShortDto(Booking booking) {
         BookingShortDto bookingShortDto = new BookingShortDto();
 
@@ -37,6 +63,27 @@ public final class BookingMapper {
         return bookingShortDto;
     }
 
+    public static BookingShortDto mapToShortDto(Long itemId, BookingSnapshot snapshot) {
+        BookingShortDto bookingShortDto = new BookingShortDto();
+
+        bookingShortDto.setId(snapshot.getBookingId());
+        bookingShortDto.setStart(snapshot.getStart());
+        bookingShortDto.setEnd(snapshot.getEnd());
+        bookingShortDto.setStatus(snapshot.getStatus());
+        bookingShortDto.setItemId(itemId);
+        bookingShortDto.setBookerId(snapshot.getBookerId());
+
+        return bookingShortDto;
+    }
+
+    public static BookingSnapshot mapToSnapshot(Booking booking) {
+        return new BookingSnapshot(booking.getId(),
+                booking.getStart(),
+                booking.getEnd(),
+                booking.getBooker().getId(),
+                booking.getStatus());
+    }
+
     public static Booking mapToBooking(NewBookingRequest request, Item item, User booker, BookingStatus status) {
         Booking booking = new Booking();
 
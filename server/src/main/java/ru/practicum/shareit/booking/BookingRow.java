@@ -0,0 +1,27 @@
+package ru.practicum.shareit.booking;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Плоская строка бронирования для списков: заполняется конструктором прямо из JPQL
+ * без загрузки сущностей Booking/Item/User в контекст персистентности.
+ */
+@Getter
+@AllArgsConstructor
+public class BookingRow {
+    private final Long id;
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+    private final BookingStatus status;
+    private final Long itemId;
+    private final String itemName;
+    private final Boolean itemAvailable;
+    private final Long ownerId;
+    private final String ownerEmail;
+    private final Long bookerId;
+    private final String bookerName;
+    private final String bookerEmail;
+}
@@ -1,21 +1,32 @@
 package ru.practicum.shareit.booking;
 
+import ru.practicum.shareit.pagination.Cursor;
+
 import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 
 public interface BookingService {
 
     BookingDto save(Long userId, NewBookingRequest newBookingRequest);
 
-    Collection<BookingDto> findAllByBookerIdAndState(Long bookerId, BookingState state);
+    List<BookingBatchResult> saveAll(Long userId, List<NewBookingRequest> newBookingRequests);
+
+    Collection<BookingDto> findAllByBookerIdAndState(Long bookerId, BookingState state, Cursor after, Integer limit);
+
+    Collection<BookingDto> findAllByOwnerIdAndState(Long ownerId, BookingState state, Cursor after, Integer limit);
 
-    Collection<BookingDto> findAllByOwnerIdAndState(Long ownerId, BookingState state);
+    OwnerBookingSummaryDto findOwnerSummary(Long ownerId, BookingState state, Integer limit);
 
     BookingDto findBookingById(Long userId, Long bookingId);
 
+    String findBookingETag(Long userId, Long bookingId);
+
     BookingDto approveBooking(Long userId, Long bookingId, Boolean isApprove);
 
+    List<BookingApprovalResult> approveBookings(Long userId, List<BookingDecision> decisions);
+
     Booking checkBooking(Long bookingId);
 
     BookingDto findPrev(Long ownerId);
@@ -2,22 +2,37 @@ package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.summary.ItemBookingSummaryService;
+import ru.practicum.shareit.exception.BookingOverlapException;
 import ru.practicum.shareit.exception.BookingStatusException;
 import ru.practicum.shareit.exception.ForbiddenException;
+import ru.practicum.shareit.exception.ItemUnavailableException;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.Item;
 import ru.practicum.shareit.item.ItemMapper;
 import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.pagination.Cursor;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserMapper;
 import ru.practicum.shareit.user.UserService;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -25,18 +40,24 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class BookingServiceImpl implements BookingService {
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_BATCH_SIZE = 100;
+
     private final BookingStorage bookingRepository;
     private final UserService userService;
     private final ItemService itemService;
-
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final ItemBookingSummaryService itemBookingSummaryService;
 
     @Transactional
     @Override
     public BookingDto save(Long bookerId, NewBookingRequest newBookingRequest) {
         User booker = userService.checkUser(bookerId);
         Item item = itemService.checkAvailableItem(newBookingRequest.getItemId());
+        checkBookingOverlap(item, newBookingRequest);
         Booking booking = BookingMapper.mapToBooking(newBookingRequest, item, booker, BookingStatus.WAITING);
         bookingRepository.save(booking);
+        itemBookingSummaryService.onBookingSaved(booking);
         log.info("Пользователь {} создал запрос на бронирование предмета {} с ID: {}",
                 booker.getEmail(),
                 item.getName(),
@@ -46,32 +67,87 @@ public class BookingServiceImpl implements BookingService {
                 UserMapper.mapToUserDto(booker));
     }
 
+    /**
+     * Предметы загружаются одним запросом, пересечения проверяются по индексу интервалов,
+     * прошедшие проверку бронирования вставляются одним JDBC-пакетом. Ошибка отдельного
+     * элемента не отменяет остальные и возвращается в его результате.
+     */
+    @Transactional
+    @Override
+    public List<BookingBatchResult> saveAll(Long bookerId, List<NewBookingRequest> newBookingRequests) {
+        checkBatchSize(newBookingRequests);
+        User booker = userService.checkUser(bookerId);
+        Map<Long, Item> items = itemService.findAllByIds(newBookingRequests.stream()
+                .map(NewBookingRequest::getItemId)
+                .collect(Collectors.toSet()));
+        List<BookingBatchResult> results = new ArrayList<>(newBookingRequests.size());
+        List<BookingBatchResult> created = new ArrayList<>();
+        List<Booking> bookings = new ArrayList<>();
+        for (int index = 0; index < newBookingRequests.size(); index++) {
+            NewBookingRequest newBookingRequest = newBookingRequests.get(index);
+            try {
+                Item item = checkBatchItem(items, newBookingRequest.getItemId());
+                itemService.checkAvailable(item);
+                checkBookingOverlap(item, newBookingRequest);
+                BookingBatchResult result = new BookingBatchResult(index, HttpStatus.CREATED.value(), null, null);
+                results.add(result);
+                created.add(result);
+                bookings.add(BookingMapper.mapToBooking(newBookingRequest, item, booker, BookingStatus.WAITING));
+            } catch (NotFoundException e) {
+                results.add(new BookingBatchResult(index, HttpStatus.NOT_FOUND.value(), null, e.getMessage()));
+            } catch (ItemUnavailableException e) {
+                results.add(new BookingBatchResult(index, HttpStatus.BAD_REQUEST.value(), null, e.getMessage()));
+            } catch (BookingOverlapException e) {
+                results.add(new BookingBatchResult(index, HttpStatus.CONFLICT.value(), null, e.getMessage()));
+            }
+        }
+        bookingRepository.saveAll(bookings);
+        itemBookingSummaryService.onBookingsSaved(bookings);
+        for (int i = 0; i < bookings.size(); i++) {
+            Booking booking = bookings.get(i);
+            created.get(i).setBooking(BookingMapper.mapToBookingDto(booking,
+                    ItemMapper.mapToShortDto(booking.getItem()),
+                    UserMapper.mapToUserDto(booker)));
+        }
+        log.info("Пользователь {} создал пакетом {} из {} запросов на бронирование",
+                booker.getEmail(), bookings.size(), newBookingRequests.size());
+        return results;
+    }
+
     @Override
-    public Collection<BookingDto> findAllByBookerIdAndState(Long bookerId, BookingState state) {
+    public Collection<BookingDto> findAllByBookerIdAndState(Long bookerId, BookingState state,
+                                                            Cursor after, Integer limit) {
         userService.checkUser(bookerId);
-        return getFindMethodByStateForBooker(bookerId, state)
+        return getFindMethodByStateForBooker(bookerId, state, Cursor.orFirst(after), toLimit(limit))
                 .stream()
-                .map(booking -> BookingMapper.mapToBookingDto(
-                        booking,
-                        ItemMapper.mapToShortDto(booking.getItem()),
-                        UserMapper.mapToUserDto(booking.getBooker())
-                ))
+                .map(BookingMapper::mapToBookingDto)
                 .toList();
     }
 
     @Override
-    public Collection<BookingDto> findAllByOwnerIdAndState(Long ownerId, BookingState state) {
+    public Collection<BookingDto> findAllByOwnerIdAndState(Long ownerId, BookingState state,
+                                                           Cursor after, Integer limit) {
         userService.checkUser(ownerId);
-        return getFindMethodByStateForOwner(ownerId, state)
+        return getFindMethodByStateForOwner(ownerId, state, Cursor.orFirst(after), toLimit(limit))
                 .stream()
-                .map(booking -> BookingMapper.mapToBookingDto(
-                        booking,
-                        ItemMapper.mapToShortDto(booking.getItem()),
-                        UserMapper.mapToUserDto(booking.getBooker())
-                ))
+                .map(BookingMapper::mapToBookingDto)
                 .toList();
     }
 
+    @Override
+    public OwnerBookingSummaryDto findOwnerSummary(Long ownerId, BookingState state, Integer limit) {
+        Collection<BookingDto> firstPage = findAllByOwnerIdAndState(ownerId, state, null, limit);
+        BookingStateCounts counts = bookingRepository.countStatesByItemOwnerId(ownerId, LocalDateTime.now());
+        Map<BookingState, Long> countsByState = new EnumMap<>(BookingState.class);
+        countsByState.put(BookingState.ALL, counts.getAllCount());
+        countsByState.put(BookingState.CURRENT, counts.getCurrentCount());
+        countsByState.put(BookingState.PAST, counts.getPastCount());
+        countsByState.put(BookingState.FUTURE, counts.getFutureCount());
+        countsByState.put(BookingState.WAITING, counts.getWaitingCount());
+        countsByState.put(BookingState.REJECTED, counts.getRejectedCount());
+        return new OwnerBookingSummaryDto(countsByState, state, firstPage);
+    }
+
     @Override
     public BookingDto findBookingById(Long userId, Long bookingId) {
         Booking booking = checkBooking(bookingId);
@@ -83,6 +159,16 @@ public class BookingServiceImpl implements BookingService {
                 ));
     }
 
+    @Override
+    public String findBookingETag(Long userId, Long bookingId) {
+        BookingVersion version = bookingRepository.findVersionById(bookingId).orElseThrow(() -> {
+            log.error("Бронирование не найдено с ID: {}", bookingId);
+            return new NotFoundException("Бронирование не найдено с ID: " + bookingId);
+        });
+        checkAuthorAndItemOwner(userId, bookingId, version.getBookerId(), version.getOwnerId());
+        return version.getBookingVersion() + "-" + version.getItemVersion();
+    }
+
     @Transactional
     @Override
     public BookingDto approveBooking(Long userId, Long bookingId, Boolean isApproved) {
@@ -93,6 +179,10 @@ public class BookingServiceImpl implements BookingService {
         BookingStatus newStatus = isApproved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
         booking.setStatus(newStatus);
         bookingRepository.save(booking);
+        itemBookingSummaryService.onBookingStatusChanged(booking);
+        if (newStatus == BookingStatus.REJECTED) {
+            bookingIntervalIndex.release(booking);
+        }
         log.info("Владелец {} обновил статус запроса на бронирование предмета {} с ID: {} на статус: {}",
                 userId, item.getName(), item.getId(), booking.getStatus().name());
         return BookingMapper.mapToBookingDto(
@@ -102,6 +192,55 @@ public class BookingServiceImpl implements BookingService {
                 ));
     }
 
+    /**
+     * Владелец и статус всех бронирований проверяются одним запросом, новые статусы
+     * выставляются двумя UPDATE (APPROVED и REJECTED) только для бронирований, всё ещё ожидающих решения.
+     */
+    @Transactional
+    @Override
+    public List<BookingApprovalResult> approveBookings(Long userId, List<BookingDecision> decisions) {
+        checkBatchSize(decisions);
+        Map<Long, BookingApprovalCandidate> candidates = bookingRepository.findApprovalCandidates(decisions.stream()
+                        .map(BookingDecision::getBookingId)
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(BookingApprovalCandidate::getId, Function.identity()));
+        List<BookingApprovalResult> results = new ArrayList<>(decisions.size());
+        Map<Long, BookingApprovalResult> accepted = new HashMap<>();
+        Map<BookingStatus, List<Long>> idsByStatus = new EnumMap<>(BookingStatus.class);
+        Set<Long> seen = new HashSet<>();
+        for (BookingDecision decision : decisions) {
+            Long bookingId = decision.getBookingId();
+            try {
+                checkDecision(decision, seen);
+                BookingApprovalCandidate candidate = checkCandidate(candidates, bookingId);
+                checkItemOwner(userId, candidate);
+                checkBookingWaitingStatus(bookingId, candidate.getStatus());
+                BookingStatus newStatus = decision.getApproved() ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+                idsByStatus.computeIfAbsent(newStatus, status -> new ArrayList<>()).add(bookingId);
+                BookingApprovalResult result = new BookingApprovalResult(bookingId, HttpStatus.OK.value(), newStatus, null);
+                results.add(result);
+                accepted.put(bookingId, result);
+            } catch (NotFoundException e) {
+                results.add(new BookingApprovalResult(bookingId, HttpStatus.NOT_FOUND.value(), null, e.getMessage()));
+            } catch (ForbiddenException e) {
+                results.add(new BookingApprovalResult(bookingId, HttpStatus.FORBIDDEN.value(), null, e.getMessage()));
+            } catch (ValidationException | BookingStatusException e) {
+                results.add(new BookingApprovalResult(bookingId, HttpStatus.BAD_REQUEST.value(), null, e.getMessage()));
+            }
+        }
+        idsByStatus.forEach((status, ids) -> {
+            if (bookingRepository.updateWaitingStatus(ids, status) != ids.size()) {
+                markConcurrentlyChanged(ids, status, accepted);
+            }
+        });
+        applyStatusChanges(candidates, accepted.values());
+        log.info("Владелец {} обновил пакетом статусы {} из {} бронирований",
+                userId, accepted.values().stream().filter(result -> result.getError() == null).count(), decisions.size());
+        return results;
+    }
+
     @Override
     public Booking checkBooking(Long bookingId) {
         return bookingRepository.findById(bookingId).orElseThrow(() -> {
@@ -112,39 +251,57 @@ public class BookingServiceImpl implements BookingService {
 
 
     private void checkAuthorAndItemOwner(Long userId, Booking booking) {
-        if (!(booking.getItem().getOwner().getId().equals(userId) || booking.getBooker().getId().equals(userId))) {
+        checkAuthorAndItemOwner(userId, booking.getId(), booking.getBooker().getId(), booking.getItem().getOwner().getId());
+    }
+
+    private void checkAuthorAndItemOwner(Long userId, Long bookingId, Long bookerId, Long ownerId) {
+        if (!(ownerId.equals(userId) || bookerId.equals(userId))) {
             log.error("Пользователь с ID: {} не является букером бронирования с ID: {}, " +
-                    "а также не является владельцем предмета", userId, booking.getId());
+                    "а также не является владельцем предмета", userId, bookingId);
             throw new ForbiddenException("Пользователь с ID: " + userId +
-                    " не является букером бронирования с ID: " + booking.getId() +
+                    " не является букером бронирования с ID: " + bookingId +
                     " а также не является владельцем предмета");
         }
     }
 
 
 
-    private Collection<Booking> getFindMethodByStateForBooker(Long bookerId, BookingState state) {
+    private Collection<BookingRow> getFindMethodByStateForBooker(Long bookerId, BookingState state,
+                                                              Cursor after, Limit limit) {
+        LocalDateTime start = after.getTime();
+        Long id = after.getId();
         return switch (state) {
-            case ALL -> bookingRepository.findByBookerIdOrderByStart(bookerId);
-            case CURRENT -> bookingRepository.findByBookerIdAndEndAfterOrderByStart(bookerId, LocalDateTime.now());
-            case PAST -> bookingRepository.findByBookerIdAndEndBeforeOrderByStart(bookerId, LocalDateTime.now());
-            case FUTURE -> bookingRepository.findByBookerIdAndStartAfterOrderByStart(bookerId, LocalDateTime.now());
-            case WAITING -> bookingRepository.findByBookerIdAndStatusOrderByStart(bookerId, BookingStatus.WAITING);
-            case REJECTED -> bookingRepository.findByBookerIdAndStatusOrderByStart(bookerId, BookingStatus.REJECTED);
+            case ALL -> bookingRepository.findPageByBookerId(bookerId, start, id, limit);
+            case CURRENT -> bookingRepository.findPageByBookerIdAndEndAfter(bookerId, LocalDateTime.now(), start, id, limit);
+            case PAST -> bookingRepository.findPageByBookerIdAndEndBefore(bookerId, LocalDateTime.now(), start, id, limit);
+            case FUTURE -> bookingRepository.findPageByBookerIdAndStartAfter(bookerId, LocalDateTime.now(), start, id, limit);
+            case WAITING -> bookingRepository.findPageByBookerIdAndStatus(bookerId, BookingStatus.WAITING, start, id, limit);
+            case REJECTED -> bookingRepository.findPageByBookerIdAndStatus(bookerId, BookingStatus.REJECTED, start, id, limit);
         };
     }
 
-    private Collection<Booking> getFindMethodByStateForOwner(Long ownerId, BookingState state) {
+    private Collection<BookingRow> getFindMethodByStateForOwner(Long ownerId, BookingState state,
+                                                             Cursor after, Limit limit) {
+        LocalDateTime start = after.getTime();
+        Long id = after.getId();
         return switch (state) {
-            case ALL -> bookingRepository.findByItemOwnerIdOrderByStart(ownerId);
-            case CURRENT -> bookingRepository.findByItemOwnerIdAndEndAfterOrderByStart(ownerId, LocalDateTime.now());
-            case PAST -> bookingRepository.findByItemOwnerIdAndEndBeforeOrderByStart(ownerId, LocalDateTime.now());
-            case FUTURE -> bookingRepository.findByItemOwnerIdAndStartAfterOrderByStart(ownerId, LocalDateTime.now());
-            case WAITING -> bookingRepository.findByItemOwnerIdAndStatusOrderByStart(ownerId, BookingStatus.WAITING);
-            case REJECTED -> bookingRepository.findByItemOwnerIdAndStatusOrderByStart(ownerId, BookingStatus.REJECTED);
+            case ALL -> bookingRepository.findPageByItemOwnerId(ownerId, start, id, limit);
+            case CURRENT -> bookingRepository.findPageByItemOwnerIdAndEndAfter(ownerId, LocalDateTime.now(), start, id, limit);
+            case PAST -> bookingRepository.findPageByItemOwnerIdAndEndBefore(ownerId, LocalDateTime.now(), start, id, limit);
+            case FUTURE -> bookingRepository.findPageByItemOwnerIdAndStartAfter(ownerId, LocalDateTime.now(), start, id, limit);
+            case WAITING -> bookingRepository.findPageByItemOwnerIdAndStatus(ownerId, BookingStatus.WAITING, start, id, limit);
+            case REJECTED -> bookingRepository.findPageByItemOwnerIdAndStatus(ownerId, BookingStatus.REJECTED, start, id, limit);
         };
     }
 
+    private Limit toLimit(Integer limit) {
+        if (limit == null || limit < 1 || limit > MAX_PAGE_SIZE) {
+            log.error("Размер страницы должен быть от 1 до {}, передан: {}", MAX_PAGE_SIZE, limit);
+            throw new ValidationException("Размер страницы должен быть от 1 до " + MAX_PAGE_SIZE + ", передан: " + limit);
+        }
+        return Limit.of(limit);
+    }
+
     @Override
     public BookingDto findPrev(Long ownerId) {
         Optional<Booking> prev = bookingRepository.findFirstByItemOwnerIdAndEndBeforeOrderByEndDesc(ownerId, LocalDateTime.now());
@@ -184,30 +341,126 @@ public class BookingServiceImpl implements BookingService {
 
     @Override
     public Map<Long, BookingShortDto> findAllPrevsByItemIds(Collection<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return Map.of();
+        }
         return bookingRepository.findPrevBookings(itemIds, LocalDateTime.now()).stream()
                 .collect(Collectors.toMap(
                         b -> b.getItem().getId(),
-                        BookingMapper::mapToShortDto,
-                        (b1, b2) -> b1
+                        BookingMapper::mapToShortDto
                 ));
     }
 
     @Override
     public Map<Long, BookingShortDto> findAllNextsByItemIds(Collection<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return Map.of();
+        }
         return bookingRepository.findNextBookings(itemIds, LocalDateTime.now()).stream()
                 .collect(Collectors.toMap(
                         b -> b.getItem().getId(),
-                        BookingMapper::mapToShortDto,
-                        (b1, b2) -> b1
+                        BookingMapper::mapToShortDto
                 ));
     }
 
+    private void checkBookingOverlap(Item item, NewBookingRequest newBookingRequest) {
+        if (!bookingIntervalIndex.tryReserve(item.getId(), newBookingRequest.getStart(), newBookingRequest.getEnd())) {
+            log.error("Предмет с ID: {} уже забронирован на период с {} по {}",
+                    item.getId(), newBookingRequest.getStart(), newBookingRequest.getEnd());
+            throw new BookingOverlapException("Предмет с ID: " + item.getId() +
+                    " уже забронирован на период с " + newBookingRequest.getStart() +
+                    " по " + newBookingRequest.getEnd());
+        }
+    }
+
+    private void checkBatchSize(Collection<?> batch) {
+        int size = batch == null ? 0 : batch.size();
+        if (size < 1 || size > MAX_BATCH_SIZE) {
+            log.error("Количество бронирований в пакете должно быть от 1 до {}, передано: {}", MAX_BATCH_SIZE, size);
+            throw new ValidationException("Количество бронирований в пакете должно быть от 1 до " + MAX_BATCH_SIZE +
+                    ", передано: " + size);
+        }
+    }
+
+    private void checkDecision(BookingDecision decision, Set<Long> seen) {
+        if (decision.getBookingId() == null || decision.getApproved() == null) {
+            log.error("Не указан ID бронирования или решение по нему: {}", decision);
+            throw new ValidationException("Не указан ID бронирования или решение по нему: " + decision);
+        }
+        if (!seen.add(decision.getBookingId())) {
+            log.error("Бронирование с ID: {} повторяется в пакете", decision.getBookingId());
+            throw new ValidationException("Бронирование с ID: " + decision.getBookingId() + " повторяется в пакете");
+        }
+    }
+
+    private BookingApprovalCandidate checkCandidate(Map<Long, BookingApprovalCandidate> candidates, Long bookingId) {
+        BookingApprovalCandidate candidate = candidates.get(bookingId);
+        if (candidate == null) {
+            log.error("Бронирование не найдено с ID: {}", bookingId);
+            throw new NotFoundException("Бронирование не найдено с ID: " + bookingId);
+        }
+        return candidate;
+    }
+
+    private void checkItemOwner(Long userId, BookingApprovalCandidate candidate) {
+        if (!candidate.getOwnerId().equals(userId)) {
+            log.error("Пользователь с ID: {} не является владельцем предмета с ID: {}", userId, candidate.getItemId());
+            throw new ForbiddenException("Пользователь с ID: " + userId +
+                    " не является владельцем предмета с ID: " + candidate.getItemId());
+        }
+    }
+
+    private void markConcurrentlyChanged(List<Long> ids, BookingStatus status,
+                                         Map<Long, BookingApprovalResult> accepted) {
+        for (BookingApprovalCandidate current : bookingRepository.findApprovalCandidates(ids)) {
+            if (current.getStatus() != status) {
+                log.error("Статус бронирования с ID: {} изменился параллельно на {}", current.getId(), current.getStatus());
+                BookingApprovalResult result = accepted.get(current.getId());
+                result.setStatus(HttpStatus.CONFLICT.value());
+                result.setBookingStatus(current.getStatus());
+                result.setError("Статус бронирования с ID: " + current.getId() +
+                        " изменился параллельно на " + current.getStatus());
+            }
+        }
+    }
+
+    private void applyStatusChanges(Map<Long, BookingApprovalCandidate> candidates,
+                                    Collection<BookingApprovalResult> accepted) {
+        Map<Long, BookingStatus> statuses = new HashMap<>();
+        Set<Long> itemIds = new HashSet<>();
+        for (BookingApprovalResult result : accepted) {
+            if (result.getError() != null) {
+                continue;
+            }
+            BookingApprovalCandidate candidate = candidates.get(result.getBookingId());
+            statuses.put(candidate.getId(), result.getBookingStatus());
+            itemIds.add(candidate.getItemId());
+            if (result.getBookingStatus() == BookingStatus.REJECTED) {
+                bookingIntervalIndex.release(candidate.getItemId(), candidate.getStart(), candidate.getEnd());
+            }
+        }
+        itemBookingSummaryService.onBookingStatusesChanged(itemIds, statuses);
+    }
+
+    private Item checkBatchItem(Map<Long, Item> items, Long itemId) {
+        Item item = items.get(itemId);
+        if (item == null) {
+            log.error("Предмет не найден с ID: {}", itemId);
+            throw new NotFoundException("Предмет не найден с ID: " + itemId);
+        }
+        return item;
+    }
+
     private void checkBookingWaitingStatus(Booking booking) {
-        if (!booking.getStatus().equals(BookingStatus.WAITING)) {
+        checkBookingWaitingStatus(booking.getId(), booking.getStatus());
+    }
+
+    private void checkBookingWaitingStatus(Long bookingId, BookingStatus status) {
+        if (!status.equals(BookingStatus.WAITING)) {
             log.error("Бронирование с id={} не находится в статусе ожидания, текущий статус: {}",
-                    booking.getId(), booking.getStatus().name());
-            throw new BookingStatusException("Бронирование с id=" + booking.getId() +
-                    " не находится в статусе ожидания, текущий статус: " + booking.getStatus().name());
+                    bookingId, status.name());
+            throw new BookingStatusException("Бронирование с id=" + bookingId +
+                    " не находится в статусе ожидания, текущий статус: " + status.name());
         }
     }
 
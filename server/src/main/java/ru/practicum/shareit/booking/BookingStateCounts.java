@@ -0,0 +1,15 @@
+package ru.practicum.shareit.booking;
+
+public interface BookingStateCounts {
+    Long getAllCount();
+
+    Long getCurrentCount();
+
+    Long getPastCount();
+
+    Long getFutureCount();
+
+    Long getWaitingCount();
+
+    Long getRejectedCount();
+}
@@ -2,8 +2,10 @@ package ru.practicum.shareit.booking;
 
 
 import lombok.NonNull;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 
 import java.time.LocalDateTime;
@@ -18,39 +20,126 @@ public interface BookingStorage extends JpaRepository<Booking, Long> {
     @Override
     Optional<Booking> findById(@NonNull Long id);
 
-    //Booker
-    @EntityGraph(value = "Booking.forMapping")
-    Collection<Booking> findByBookerIdOrderByStart(Long bookerId);
-
-    @EntityGraph(value = "Booking.forMapping")
-    Collection<Booking> findByBookerIdAndEndAfterOrderByStart(Long bookerId, LocalDateTime now);
-
-    @EntityGraph(value = "Booking.forMapping")
-    Collection<Booking> findByBookerIdAndEndBeforeOrderByStart(Long bookerId, LocalDateTime now);
+    @Query("SELECT b.version AS bookingVersion, i.version AS itemVersion, " +
+            "b.booker.id AS bookerId, i.owner.id AS ownerId " +
+            "FROM Booking b JOIN b.item i " +
+            "WHERE b.id = ?1")
+    Optional<BookingVersion> findVersionById(Long bookingId);
+
+    @Query("SELECT b.id AS id, i.id AS itemId, i.owner.id AS ownerId, b.status AS status, " +
+            "b.start AS start, b.end AS end " +
+            "FROM Booking b JOIN b.item i " +
+            "WHERE b.id IN ?1")
+    List<BookingApprovalCandidate> findApprovalCandidates(Collection<Long> bookingIds);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = ?2, b.version = b.version + 1 " +
+            "WHERE b.id IN ?1 AND b.status = ru.practicum.shareit.booking.BookingStatus.WAITING")
+    int updateWaitingStatus(Collection<Long> bookingIds, BookingStatus status);
+
+    /**
+     * Бронирования показывают имя и email арендатора, поэтому при их изменении версия увеличивается,
+     * чтобы сменился ETag.
+     */
+    @Modifying
+    @Query("UPDATE Booking b SET b.version = b.version + 1 WHERE b.booker.id = ?1")
+    void incrementVersionsByBookerId(Long bookerId);
 
-    @EntityGraph(value = "Booking.forMapping")
-    Collection<Booking> findByBookerIdAndStartAfterOrderByStart(Long bookerId, LocalDateTime now);
-
-    @EntityGraph(value = "Booking.forMapping")
-    Collection<Booking> findByBookerIdAndStatusOrderByStart(Long bookerId, BookingStatus status);
+    //Booker
+    @Query("SELECT new ru.practicum.shareit.booking.BookingRow(b.id, b.start, b.end, b.status, " +
+            "i.id, i.name, i.available, o.id, o.email, u.id, u.name, u.email) " +
+            "FROM Booking b JOIN b.item i JOIN i.owner o JOIN b.booker u " +
+            "WHERE u.id = ?1 " +
+            "AND (b.start > ?2 OR (b.start = ?2 AND b.id > ?3)) " +
+            "ORDER BY b.start, b.id")
+    List<BookingRow> findPageByBookerId(Long bookerId, LocalDateTime afterStart, Long afterId, Limit limit);
+
+    @Query("SELECT new ru.practicum.shareit.booking.BookingRow(b.id, b.start, b.end, b.status, " +
+            "i.id, i.name, i.available, o.id, o.email, u.id, u.name, u.email) " +
+            "FROM Booking b JOIN b.item i JOIN i.owner o JOIN b.booker u " +
+            "WHERE u.id = ?1 AND b.end > ?2 " +
+            "AND (b.start > ?3 OR (b.start = ?3 AND b.id > ?4)) " +
+            "ORDER BY b.start, b.id")
+    List<BookingRow> findPageByBookerIdAndEndAfter(Long bookerId, LocalDateTime now, LocalDateTime afterStart, Long afterId, Limit limit);
+
+    @Query("SELECT new ru.practicum.shareit.booking.BookingRow(b.id, b.start, b.end, b.status, " +
+            "i.id, i.name, i.available, o.id, o.email, u.id, u.name, u.email) " +
+            "FROM Booking b JOIN b.item i JOIN i.owner o JOIN b.booker u " +
+            "WHERE u.id = ?1 AND b.end < ?2 " +
+            "AND (b.start > ?3 OR (b.start = ?3 AND b.id > ?4)) " +
+            "ORDER BY b.start, b.id")
+    List<BookingRow> findPageByBookerIdAndEndBefore(Long bookerId, LocalDateTime now, LocalDateTime afterStart, Long afterId, Limit limit);
+
+    @Query("SELECT new ru.practicum.shareit.booking.BookingRow(b.id, b.start, b.end, b.status, " +
+            "i.id, i.name, i.available, o.id, o.email, u.id, u.name, u.email) " +
+            "FROM Booking b JOIN b.item i JOIN i.owner o JOIN b.booker u " +
+            "WHERE u.id = ?1 AND b.start > ?2 " +
+            "AND (b.start > ?3 OR (b.start = ?3 AND b.id > ?4)) " +
+            "ORDER BY b.start, b.id")
+    List<BookingRow> findPageByBookerIdAndStartAfter(Long bookerId, LocalDateTime now, LocalDateTime afterStart, Long afterId, Limit limit);
+
+    @Query("SELECT new ru.practicum.shareit.booking.BookingRow(b.id, b.start, b.end, b.status, " +
+            "i.id, i.name, i.available, o.id, o.email, u.id, u.name, u.email) " +
+            "FROM Booking b JOIN b.item i JOIN i.owner o JOIN b.booker u " +
+            "WHERE u.id = ?1 AND b.status = ?2 " +
+            "AND (b.start > ?3 OR (b.start = ?3 AND b.id > ?4)) " +
+            "ORDER BY b.start, b.id")
+    List<BookingRow> findPageByBookerIdAndStatus(Long bookerId, BookingStatus status, LocalDateTime afterStart, Long afterId, Limit limit);
 
     Boolean existsByBookerIdAndItemIdAndEndBefore(Long bookerId, Long itemId, LocalDateTime now);
 
     //Owner
-    @EntityGraph(value = "Booking.forMapping")
-    Collection<Booking> findByItemOwnerIdOrderByStart(Long ownerId);
-
-    @EntityGraph(value = "Booking.forMapping")
-    Collection<Booking> findByItemOwnerIdAndEndAfterOrderByStart(Long ownerId, LocalDateTime now);
-
-    @EntityGraph(value = "Booking.forMapping")
-    Collection<Booking> findByItemOwnerIdAndEndBeforeOrderByStart(Long ownerId, LocalDateTime now);
-
-    @EntityGraph(value = "Booking.forMapping")
-    Collection<Booking> findByItemOwnerIdAndStartAfterOrderByStart(Long ownerId, LocalDateTime now);
-
-    @EntityGraph(value = "Booking.forMapping")
-    Collection<Booking> findByItemOwnerIdAndStatusOrderByStart(Long ownerId, BookingStatus status);
+    @Query("SELECT COUNT(b) AS allCount, " +
+            "COALESCE(SUM(CASE WHEN b.end > ?2 THEN 1 ELSE 0 END), 0) AS currentCount, " +
+            "COALESCE(SUM(CASE WHEN b.end < ?2 THEN 1 ELSE 0 END), 0) AS pastCount, " +
+            "COALESCE(SUM(CASE WHEN b.start > ?2 THEN 1 ELSE 0 END), 0) AS futureCount, " +
+            "COALESCE(SUM(CASE WHEN b.status = ru.practicum.shareit.booking.BookingStatus.WAITING THEN 1 ELSE 0 END), 0) " +
+            "AS waitingCount, " +
+            "COALESCE(SUM(CASE WHEN b.status = ru.practicum.shareit.booking.BookingStatus.REJECTED THEN 1 ELSE 0 END), 0) " +
+            "AS rejectedCount " +
+            "FROM Booking b " +
+            "WHERE b.item.owner.id = ?1")
+    BookingStateCounts countStatesByItemOwnerId(Long ownerId, LocalDateTime now);
+
+    @Query("SELECT new ru.practicum.shareit.booking.BookingRow(b.id, b.start, b.end, b.status, " +
+            "i.id, i.name, i.available, o.id, o.email, u.id, u.name, u.email) " +
+            "FROM Booking b JOIN b.item i JOIN i.owner o JOIN b.booker u " +
+            "WHERE o.id = ?1 " +
+            "AND (b.start > ?2 OR (b.start = ?2 AND b.id > ?3)) " +
+            "ORDER BY b.start, b.id")
+    List<BookingRow> findPageByItemOwnerId(Long ownerId, LocalDateTime afterStart, Long afterId, Limit limit);
+
+    @Query("SELECT new ru.practicum.shareit.booking.BookingRow(b.id, b.start, b.end, b.status, " +
+            "i.id, i.name, i.available, o.id, o.email, u.id, u.name, u.email) " +
+            "FROM Booking b JOIN b.item i JOIN i.owner o JOIN b.booker u " +
+            "WHERE o.id = ?1 AND b.end > ?2 " +
+            "AND (b.start > ?3 OR (b.start = ?3 AND b.id > ?4)) " +
+            "ORDER BY b.start, b.id")
+    List<BookingRow> findPageByItemOwnerIdAndEndAfter(Long ownerId, LocalDateTime now, LocalDateTime afterStart, Long afterId, Limit limit);
+
+    @Query("SELECT new ru.practicum.shareit.booking.BookingRow(b.id, b.start, b.end, b.status, " +
+            "i.id, i.name, i.available, o.id, o.email, u.id, u.name, u.email) " +
+            "FROM Booking b JOIN b.item i JOIN i.owner o JOIN b.booker u " +
+            "WHERE o.id = ?1 AND b.end < ?2 " +
+            "AND (b.start > ?3 OR (b.start = ?3 AND b.id > ?4)) " +
+            "ORDER BY b.start, b.id")
+    List<BookingRow> findPageByItemOwnerIdAndEndBefore(Long ownerId, LocalDateTime now, LocalDateTime afterStart, Long afterId, Limit limit);
+
+    @Query("SELECT new ru.practicum.shareit.booking.BookingRow(b.id, b.start, b.end, b.status, " +
+            "i.id, i.name, i.available, o.id, o.email, u.id, u.name, u.email) " +
+            "FROM Booking b JOIN b.item i JOIN i.owner o JOIN b.booker u " +
+            "WHERE o.id = ?1 AND b.start > ?2 " +
+            "AND (b.start > ?3 OR (b.start = ?3 AND b.id > ?4)) " +
+            "ORDER BY b.start, b.id")
+    List<BookingRow> findPageByItemOwnerIdAndStartAfter(Long ownerId, LocalDateTime now, LocalDateTime afterStart, Long afterId, Limit limit);
+
+    @Query("SELECT new ru.practicum.shareit.booking.BookingRow(b.id, b.start, b.end, b.status, " +
+            "i.id, i.name, i.available, o.id, o.email, u.id, u.name, u.email) " +
+            "FROM Booking b JOIN b.item i JOIN i.owner o JOIN b.booker u " +
+            "WHERE o.id = ?1 AND b.status = ?2 " +
+            "AND (b.start > ?3 OR (b.start = ?3 AND b.id > ?4)) " +
+            "ORDER BY b.start, b.id")
+    List<BookingRow> findPageByItemOwnerIdAndStatus(Long ownerId, BookingStatus status, LocalDateTime afterStart, Long afterId, Limit limit);
 
     @EntityGraph(value = "Booking.forMapping")
     Optional<Booking> findFirstByItemOwnerIdAndEndBeforeOrderByEndDesc(Long ownerId, LocalDateTime now);
@@ -59,18 +148,22 @@ public interface BookingStorage extends JpaRepository<Booking, Long> {
     Optional<Booking> findFirstByItemOwnerIdAndStartAfterOrderByStart(Long ownerId, LocalDateTime now);
 
     //Other
-    @EntityGraph(value = "Booking.forMapping")
-    @Query("SELECT b " +
-            "FROM Booking b " +
-            "WHERE b.item.id IN ?1 AND b.end < ?2 " +
-            "ORDER BY b.end DESC")
+    Collection<Booking> findByStatusInAndEndAfter(Collection<BookingStatus> statuses, LocalDateTime now);
+
+    @Query(value = "SELECT b.* " +
+            "FROM bookings b " +
+            "JOIN (SELECT id, ROW_NUMBER() OVER (PARTITION BY item_id ORDER BY end_date DESC, id DESC) AS rn " +
+            "      FROM bookings " +
+            "      WHERE item_id IN ?1 AND end_date < ?2) ranked ON ranked.id = b.id " +
+            "WHERE ranked.rn = 1", nativeQuery = true)
     List<Booking> findPrevBookings(Collection<Long> itemIds, LocalDateTime now);
 
-    @EntityGraph(value = "Booking.forMapping")
-    @Query("SELECT b " +
-            "FROM Booking b " +
-            "WHERE b.item.id IN ?1 AND b.start > ?2 " +
-            "ORDER BY b.start ASC")
+    @Query(value = "SELECT b.* " +
+            "FROM bookings b " +
+            "JOIN (SELECT id, ROW_NUMBER() OVER (PARTITION BY item_id ORDER BY start_date ASC, id ASC) AS rn " +
+            "      FROM bookings " +
+            "      WHERE item_id IN ?1 AND start_date > ?2) ranked ON ranked.id = b.id " +
+            "WHERE ranked.rn = 1", nativeQuery = true)
     List<Booking> findNextBookings(Collection<Long> itemIds, LocalDateTime now);
 
 }
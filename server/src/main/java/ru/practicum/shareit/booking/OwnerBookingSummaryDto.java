@@ -0,0 +1,17 @@
+package ru.practicum.shareit.booking;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Collection;
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OwnerBookingSummaryDto {
+    private Map<BookingState, Long> counts;
+    private BookingState state;
+    private Collection<BookingDto> bookings;
+}
@@ -0,0 +1,193 @@
+package ru.practicum.shareit.booking.summary;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.BookingStorage;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Поддерживает витрину item_booking_summary: последнее и следующее бронирование каждого предмета.
+ * Витрина обновляется в транзакции бронирования, а когда время проходит через начало следующего
+ * или конец текущего бронирования (stale_at), пересчитывается фоновым обновлением.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class ItemBookingSummaryService {
+    private static final int REFRESH_BATCH_SIZE = 500;
+
+    private final ItemBookingSummaryStorage summaryRepository;
+    private final BookingStorage bookingRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    @Transactional
+    public void onItemCreated(Long itemId) {
+        summaryRepository.save(new ItemBookingSummary(itemId));
+    }
+
+    @Transactional
+    public void onItemDeleted(Long itemId) {
+        summaryRepository.deleteById(itemId);
+    }
+
+    @Transactional
+    public void onBookingSaved(Booking booking) {
+        onBookingsSaved(List.of(booking));
+    }
+
+    @Transactional
+    public void onBookingsSaved(Collection<Booking> bookings) {
+        if (bookings.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, ItemBookingSummary> summaries = summaryRepository.findAllForUpdate(bookings.stream()
+                        .map(booking -> booking.getItem().getId())
+                        .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(ItemBookingSummary::getItemId, Function.identity()));
+        for (Booking booking : bookings) {
+            apply(summaries.computeIfAbsent(booking.getItem().getId(), ItemBookingSummary::new), booking, now);
+        }
+        summaryRepository.saveAll(summaries.values());
+    }
+
+    @Transactional
+    public void onBookingStatusChanged(Booking booking) {
+        summaryRepository.findForUpdate(booking.getItem().getId()).ifPresent(summary -> {
+            updateStatus(summary.getLast(), booking);
+            updateStatus(summary.getNext(), booking);
+            summaryRepository.save(summary);
+        });
+    }
+
+    @Transactional
+    public void onBookingStatusesChanged(Collection<Long> itemIds, Map<Long, BookingStatus> statuses) {
+        if (itemIds.isEmpty()) {
+            return;
+        }
+        List<ItemBookingSummary> summaries = summaryRepository.findAllForUpdate(itemIds);
+        for (ItemBookingSummary summary : summaries) {
+            updateStatus(summary.getLast(), statuses);
+            updateStatus(summary.getNext(), statuses);
+        }
+        summaryRepository.saveAll(summaries);
+    }
+
+    /**
+     * Дополняет витрину для предметов без строки в ней. Каждая пачка из REFRESH_BATCH_SIZE предметов
+     * пишется в своей транзакции, чтобы контекст персистентности и транзакция не росли вместе с таблицей;
+     * если транзакция уже открыта вызывающим кодом, пачки выполняются в ней.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void backfill() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        LocalDateTime now = LocalDateTime.now();
+        int total = 0;
+        int recomputed;
+        do {
+            recomputed = transactionTemplate.execute(status -> recompute(
+                    summaryRepository.findItemIdsWithoutSummary(Limit.of(REFRESH_BATCH_SIZE)), now));
+            total += recomputed;
+        } while (recomputed > 0);
+        log.info("Витрина бронирований предметов дополнена: {} предметов", total);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking-summary.refresh-delay:PT1M}")
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void refreshStale() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        LocalDateTime now = LocalDateTime.now();
+        int recomputed;
+        do {
+            recomputed = transactionTemplate.execute(status -> recompute(
+                    summaryRepository.findStaleItemIds(now, Limit.of(REFRESH_BATCH_SIZE)), now));
+        } while (recomputed == REFRESH_BATCH_SIZE);
+    }
+
+    private int recompute(Collection<Long> itemIds, LocalDateTime now) {
+        if (itemIds.isEmpty()) {
+            return 0;
+        }
+        Map<Long, Booking> prevs = bookingRepository.findPrevBookings(itemIds, now).stream()
+                .collect(Collectors.toMap(booking -> booking.getItem().getId(), Function.identity()));
+        Map<Long, Booking> nexts = bookingRepository.findNextBookings(itemIds, now).stream()
+                .collect(Collectors.toMap(booking -> booking.getItem().getId(), Function.identity()));
+        Map<Long, LocalDateTime> earliestEnds = summaryRepository.findEarliestEnds(itemIds, now).stream()
+                .collect(Collectors.toMap(ItemEarliestEnd::getItemId, ItemEarliestEnd::getEarliestEnd));
+        Map<Long, ItemBookingSummary> summaries = summaryRepository.findAllById(itemIds).stream()
+                .collect(Collectors.toMap(ItemBookingSummary::getItemId, Function.identity()));
+
+        List<ItemBookingSummary> updated = itemIds.stream()
+                .map(itemId -> {
+                    ItemBookingSummary summary = summaries.getOrDefault(itemId, new ItemBookingSummary(itemId));
+                    Booking prev = prevs.get(itemId);
+                    Booking next = nexts.get(itemId);
+                    summary.setLast(prev == null ? null : BookingMapper.mapToSnapshot(prev));
+                    summary.setNext(next == null ? null : BookingMapper.mapToSnapshot(next));
+                    summary.setStaleAt(earliest(next == null ? null : next.getStart(), earliestEnds.get(itemId)));
+                    return summary;
+                })
+                .toList();
+        summaryRepository.saveAll(updated);
+        return updated.size();
+    }
+
+    private static void apply(ItemBookingSummary summary, Booking booking, LocalDateTime now) {
+        BookingSnapshot snapshot = BookingMapper.mapToSnapshot(booking);
+        if (booking.getEnd().isBefore(now)
+                && (summary.getLast() == null || !booking.getEnd().isBefore(summary.getLast().getEnd()))) {
+            summary.setLast(snapshot);
+        }
+        if (booking.getStart().isAfter(now)) {
+            if (summary.getNext() == null || booking.getStart().isBefore(summary.getNext().getStart())) {
+                summary.setNext(snapshot);
+            }
+            summary.setStaleAt(earliest(summary.getStaleAt(), booking.getStart()));
+        } else if (!booking.getEnd().isBefore(now)) {
+            summary.setStaleAt(earliest(summary.getStaleAt(), booking.getEnd()));
+        }
+    }
+
+    private static void updateStatus(BookingSnapshot snapshot, Booking booking) {
+        if (snapshot != null && snapshot.getBookingId().equals(booking.getId())) {
+            snapshot.setStatus(booking.getStatus());
+        }
+    }
+
+    private static void updateStatus(BookingSnapshot snapshot, Map<Long, BookingStatus> statuses) {
+        if (snapshot != null && statuses.containsKey(snapshot.getBookingId())) {
+            snapshot.setStatus(statuses.get(snapshot.getBookingId()));
+        }
+    }
+
+    private static LocalDateTime earliest(LocalDateTime first, LocalDateTime second) {
+        if (first == null) {
+            return second;
+        }
+        if (second == null) {
+            return first;
+        }
+        return first.isBefore(second) ? first : second;
+    }
+}
@@ -0,0 +1,42 @@
+package ru.practicum.shareit.booking.summary;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface ItemBookingSummaryStorage extends JpaRepository<ItemBookingSummary, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM ItemBookingSummary s WHERE s.itemId = ?1")
+    Optional<ItemBookingSummary> findForUpdate(Long itemId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM ItemBookingSummary s WHERE s.itemId IN ?1 ORDER BY s.itemId")
+    List<ItemBookingSummary> findAllForUpdate(Collection<Long> itemIds);
+
+    /**
+     * Строго раньше now: пересчет на момент now ставит staleAt не раньше now (окончание бронирования может
+     * совпасть с now), и такие строки не должны выбираться повторно в том же проходе refreshStale.
+     * Строка со staleAt == now обновится следующим проходом, а до тех пор чтение считает ее устаревшей.
+     */
+    @Query("SELECT s.itemId FROM ItemBookingSummary s WHERE s.staleAt < ?1 ORDER BY s.staleAt")
+    List<Long> findStaleItemIds(LocalDateTime now, Limit limit);
+
+    @Query("SELECT i.id " +
+            "FROM Item i " +
+            "WHERE NOT EXISTS (SELECT s FROM ItemBookingSummary s WHERE s.itemId = i.id)")
+    List<Long> findItemIdsWithoutSummary(Limit limit);
+
+    @Query("SELECT b.item.id AS itemId, MIN(b.end) AS earliestEnd " +
+            "FROM Booking b " +
+            "WHERE b.item.id IN ?1 AND b.end >= ?2 " +
+            "GROUP BY b.item.id")
+    List<ItemEarliestEnd> findEarliestEnds(Collection<Long> itemIds, LocalDateTime now);
+}
@@ -0,0 +1,9 @@
+package ru.practicum.shareit.booking.summary;
+
+import java.time.LocalDateTime;
+
+public interface ItemEarliestEnd {
+    Long getItemId();
+
+    LocalDateTime getEarliestEnd();
+}
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.exception;
+
+public class CommentQueueOverflowException extends RuntimeException {
+    public CommentQueueOverflowException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package ru.practicum.shareit.item;
+
+/**
+ * Карточка предмета из ItemDtoCache вместе с версией предмета, из которой она собрана.
+ * ETag ответа берется из этой версии, поэтому он всегда описывает именно отдаваемое тело.
+ */
+public record ItemCard(ItemDto item, long version) {
+    public String eTag() {
+        return String.valueOf(version);
+    }
+}
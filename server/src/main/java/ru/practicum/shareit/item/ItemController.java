@@ -2,9 +2,14 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.item.comment.CommentDto;
+import ru.practicum.shareit.item.comment.CommentIngestion;
 import ru.practicum.shareit.item.comment.NewCommentRequest;
+import ru.practicum.shareit.pagination.Cursor;
+import ru.practicum.shareit.util.OptimisticLockRetry;
 
 import java.util.Collection;
 
@@ -15,6 +20,8 @@ import java.util.Collection;
 public class ItemController {
     private final ItemService itemService;
     private final ItemUtilService itemUtilService;
+    private final OptimisticLockRetry optimisticLockRetry;
+    private final CommentIngestion commentIngestion;
 
     @PostMapping
     public ItemDto create(@RequestHeader("X-Sharer-User-Id") Long userId,
@@ -29,33 +36,50 @@ public class ItemController {
 
     @GetMapping("/search")
     public Collection<ItemDto> findAllByText(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                             @RequestParam("text") String text) {
-        return itemService.findAllByText(text);
+                                             @RequestParam("text") String text,
+                                             @RequestParam(defaultValue = "0") Integer from,
+                                             @RequestParam(defaultValue = "20") Integer size) {
+        return itemService.findAllByText(text, from, size);
     }
 
     @GetMapping("/{itemId}")
-    public ItemDto findItemById(@PathVariable Long itemId) {
-        return itemService.findItemById(itemId);
+    public ResponseEntity<ItemDto> findItemById(@PathVariable Long itemId, WebRequest request) {
+        ItemCard card = itemService.findItemCard(itemId);
+        if (request.checkNotModified(card.eTag())) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(card.eTag()).body(card.item());
     }
 
     @PatchMapping("/{itemId}")
     public ItemDto update(@RequestHeader("X-Sharer-User-Id") Long userId,
                           @PathVariable("itemId") Long itemId,
                           @RequestBody UpdateItemRequest updateItemRequest) {
-        return itemService.update(userId, itemId, updateItemRequest);
+        return optimisticLockRetry.execute("PATCH /items/{itemId}",
+                () -> itemService.update(userId, itemId, updateItemRequest));
     }
 
     @DeleteMapping("/{itemId}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void delete(@RequestHeader("X-Sharer-User-Id") Long userId,
                        @PathVariable Long itemId) {
-        itemService.delete(userId, itemId);
+        optimisticLockRetry.execute("DELETE /items/{itemId}", () -> itemService.delete(userId, itemId));
     }
 
     @PostMapping("/{itemId}/comment")
-    public CommentDto comment(@RequestHeader("X-Sharer-User-Id") Long authorId,
-                              @PathVariable Long itemId,
-                              @RequestBody NewCommentRequest request) {
-        return itemUtilService.comment(authorId, itemId, request);
+    public ResponseEntity<CommentDto> comment(@RequestHeader("X-Sharer-User-Id") Long authorId,
+                                              @PathVariable Long itemId,
+                                              @RequestBody NewCommentRequest request) {
+        if (commentIngestion.isEnabled()) {
+            return ResponseEntity.accepted().body(commentIngestion.submit(authorId, itemId, request));
+        }
+        return ResponseEntity.ok(itemUtilService.comment(authorId, itemId, request));
+    }
+
+    @GetMapping("/{itemId}/comments")
+    public Collection<CommentDto> findComments(@PathVariable Long itemId,
+                                               @RequestParam(required = false) String after,
+                                               @RequestParam(required = false, defaultValue = "20") Integer limit) {
+        return itemService.findCommentsByItemId(itemId, Cursor.from(after), limit);
     }
 }
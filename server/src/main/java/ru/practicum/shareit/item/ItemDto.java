@@ -22,4 +22,5 @@ public class ItemDto {
     private BookingShortDto lastBooking;
     private BookingShortDto nextBooking;
     private Collection<CommentDto> comments;
+    private Long commentCount;
 }
@@ -0,0 +1,60 @@
+package ru.practicum.shareit.item;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.comment.CommentDto;
+import ru.practicum.shareit.util.TransactionHooks;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Кэш карточек предметов с ограничением по суммарному объему текста (W-TinyLFU).
+ * Карточка хранится вместе с версией предмета, из которой собрана (см. {@link ItemCard}).
+ * Запись сбрасывается сразу и повторно после коммита изменившей предмет транзакции.
+ */
+@Component
+public class ItemDtoCache {
+    private static final int BASE_WEIGHT = 64;
+
+    private final Cache<Long, ItemCard> cache;
+
+    public ItemDtoCache(@Value("${shareit.cache.items.maximum-weight}") long maximumWeight,
+                        @Value("${shareit.cache.items.expire-after-write}") Duration expireAfterWrite,
+                        MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maximumWeight)
+                .weigher((Long itemId, ItemCard card) -> weigh(card.item()))
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "items");
+    }
+
+    public ItemCard get(Long itemId, Function<Long, ItemCard> loader) {
+        return cache.get(itemId, loader);
+    }
+
+    public void invalidate(Long itemId) {
+        cache.invalidate(itemId);
+        TransactionHooks.afterCommit(() -> cache.invalidate(itemId));
+    }
+
+    static int weigh(ItemDto itemDto) {
+        int weight = BASE_WEIGHT + length(itemDto.getName()) + length(itemDto.getDescription());
+        if (itemDto.getComments() != null) {
+            for (CommentDto comment : itemDto.getComments()) {
+                weight += BASE_WEIGHT + length(comment.getText()) + length(comment.getAuthorName());
+            }
+        }
+        return weight;
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+}
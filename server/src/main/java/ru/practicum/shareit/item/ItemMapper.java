@@ -2,10 +2,12 @@ package ru.practicum.shareit.item;
 
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
+import org.hibernate.Hibernate;
 import ru.practicum.shareit.booking.BookingShortDto;
 import ru.practicum.shareit.item.comment.CommentDto;
 import ru.practicum.shareit.request.ItemRequest;
 import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserDto;
 import ru.practicum.shareit.user.UserMapper;
 
 import java.util.Collection;
@@ -29,11 +31,44 @@ public final class ItemMapper {
         itemDto.setAvailable(item.getAvailable());
         itemDto.setOwner(UserMapper.mapToUserDto(item.getOwner()));
         if (item.getRequest() != null) {
-            itemDto.setRequest(item.getRequest());
+            itemDto.setRequest(detach(item.getRequest()));
         }
         itemDto.setLastBooking(prev);
         itemDto.setNextBooking(next);
         itemDto.setComments(comments);
+        itemDto.setCommentCount(item.getCommentCount());
+        return itemDto;
+    }
+
+    public static ItemDto mapToItemDto(ItemRow row, Collection<CommentDto> comments) {
+        return mapToItemDto(row, comments, null, null);
+    }
+
+    public static ItemDto mapToItemDto(ItemRow row,
+                                       Collection<CommentDto> comments,
+                                       BookingShortDto prev, BookingShortDto next) {
+        UserDto owner = new UserDto();
+        owner.setId(row.getOwnerId());
+        owner.setName(row.getOwnerName());
+        owner.setEmail(row.getOwnerEmail());
+
+        ItemDto itemDto = new ItemDto();
+
+        itemDto.setId(row.getId());
+        itemDto.setName(row.getName());
+        itemDto.setDescription(row.getDescription());
+        itemDto.setAvailable(row.getAvailable());
+        itemDto.setOwner(owner);
+        if (row.getRequestId() != null) {
+            itemDto.setRequest(new ItemRequest(row.getRequestId(),
+                    row.getRequestDescription(),
+                    new User(row.getRequestorId(), row.getRequestorName(), row.getRequestorEmail()),
+                    row.getRequestCreated()));
+        }
+        itemDto.setLastBooking(prev);
+        itemDto.setNextBooking(next);
+        itemDto.setComments(comments);
+        itemDto.setCommentCount(row.getCommentCount());
         return itemDto;
     }
 
@@ -49,6 +84,10 @@ public final class ItemMapper {
         return itemShortDto;
     }
 
+    public static ItemShortDto mapToShortDto(RequestItemRow row) {
+        return new ItemShortDto(row.getItemId(), row.getName(), row.getAvailable(), row.getOwnerId(), row.getOwnerEmail());
+    }
+
     public static Item mapToItem(NewItemRequest request, User owner, ItemRequest itemRequest) {
         Item item = new Item();
 
@@ -74,4 +113,11 @@ public final class ItemMapper {
 
         return item;
     }
+
+    private static ItemRequest detach(ItemRequest request) {
+        return new ItemRequest(request.getId(),
+                request.getDescription(),
+                Hibernate.unproxy(request.getRequestor(), User.class),
+                request.getCreated());
+    }
 }
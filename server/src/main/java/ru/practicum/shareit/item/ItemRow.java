@@ -0,0 +1,51 @@
+package ru.practicum.shareit.item;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import ru.practicum.shareit.booking.summary.BookingSnapshot;
+
+import java.time.LocalDateTime;
+
+/**
+ * Плоская строка предмета для списков вместе с владельцем, запросом (если есть)
+ * и строкой витрины item_booking_summary (если есть; в поиске она не читается).
+ * Заполняется конструктором прямо из JPQL, без загрузки сущностей и ленивой догрузки автора запроса.
+ */
+@Getter
+@AllArgsConstructor
+public class ItemRow {
+    private final Long id;
+    private final String name;
+    private final String description;
+    private final Boolean available;
+    private final Long commentCount;
+    private final Long ownerId;
+    private final String ownerName;
+    private final String ownerEmail;
+    private final Long requestId;
+    private final String requestDescription;
+    private final LocalDateTime requestCreated;
+    private final Long requestorId;
+    private final String requestorName;
+    private final String requestorEmail;
+    private final Long summaryItemId;
+    private final LocalDateTime summaryStaleAt;
+    private final BookingSnapshot lastBooking;
+    private final BookingSnapshot nextBooking;
+
+    public ItemRow(Long id, String name, String description, Boolean available, Long commentCount,
+                   Long ownerId, String ownerName, String ownerEmail,
+                   Long requestId, String requestDescription, LocalDateTime requestCreated,
+                   Long requestorId, String requestorName, String requestorEmail) {
+        this(id, name, description, available, commentCount, ownerId, ownerName, ownerEmail,
+                requestId, requestDescription, requestCreated, requestorId, requestorName, requestorEmail,
+                null, null, null, null);
+    }
+
+    /**
+     * Витрина есть и не устарела: последнее и следующее бронирование можно брать из строки.
+     */
+    public boolean hasFreshSummaryAt(LocalDateTime now) {
+        return summaryItemId != null && (summaryStaleAt == null || summaryStaleAt.isAfter(now));
+    }
+}
@@ -0,0 +1,208 @@
+package ru.practicum.shareit.item;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.util.TransactionHooks;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Инвертированный индекс n-грамм (длиной от 1 до GRAM_LENGTH) по названию и описанию доступных предметов.
+ * Поиск берет самый короткий список предметов среди триграмм запроса и проверяет кандидатов на вхождение подстроки,
+ * поэтому результат совпадает с LOWER(name) LIKE '%text%' OR LOWER(description) LIKE '%text%'.
+ * Для запросов короче триграммы список предметов по самой подстроке запроса и есть ответ.
+ * Совпадения в названии ранжируются выше совпадений в описании, затем по числу вхождений;
+ * для страницы from/size в куче держится не более from + size лучших совпадений.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemSearchIndex {
+    static final int GRAM_LENGTH = 3;
+    private static final Comparator<SearchHit> RANKING = Comparator
+            .comparing(SearchHit::nameHit, Comparator.reverseOrder())
+            .thenComparing(SearchHit::frequency, Comparator.reverseOrder())
+            .thenComparing(SearchHit::itemId);
+    private static final int WARM_UP_BATCH_SIZE = 1000;
+
+    private final ItemStorage itemRepository;
+    private final Map<Long, IndexedItem> itemsById = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> itemIdsByGram = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void warmUp() {
+        Long afterId = 0L;
+        List<Item> batch = itemRepository.findByAvailableTrueAndIdGreaterThanOrderById(afterId,
+                Limit.of(WARM_UP_BATCH_SIZE));
+        while (!batch.isEmpty()) {
+            batch.forEach(this::put);
+            afterId = batch.get(batch.size() - 1).getId();
+            batch = itemRepository.findByAvailableTrueAndIdGreaterThanOrderById(afterId, Limit.of(WARM_UP_BATCH_SIZE));
+        }
+        log.info("Поисковый индекс предметов загружен: {} предметов, {} n-грамм",
+                itemsById.size(), itemIdsByGram.size());
+    }
+
+    public List<Long> search(String text, int from, int size) {
+        String query = normalize(text);
+        if (query.isEmpty()) {
+            return List.of();
+        }
+        int limit = (int) Math.min((long) from + size, Integer.MAX_VALUE);
+        PriorityQueue<SearchHit> best = new PriorityQueue<>(RANKING.reversed());
+        for (Long itemId : candidates(query)) {
+            IndexedItem item = itemsById.get(itemId);
+            if (item == null || !item.contains(query)) {
+                continue;
+            }
+            best.add(item.hit(query));
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+        List<SearchHit> hits = new ArrayList<>(best);
+        hits.sort(RANKING);
+        return hits.stream()
+                .skip(from)
+                .map(SearchHit::itemId)
+                .toList();
+    }
+
+    public void index(Item item) {
+        Long itemId = item.getId();
+        String name = item.getName();
+        String description = item.getDescription();
+        boolean available = Boolean.TRUE.equals(item.getAvailable());
+        TransactionHooks.afterCommit(() -> {
+            if (available) {
+                put(itemId, name, description);
+            } else {
+                remove(itemId);
+            }
+        });
+    }
+
+    public void delete(Long itemId) {
+        TransactionHooks.afterCommit(() -> remove(itemId));
+    }
+
+    private void put(Item item) {
+        put(item.getId(), item.getName(), item.getDescription());
+    }
+
+    private synchronized void put(Long itemId, String name, String description) {
+        IndexedItem item = new IndexedItem(itemId, normalize(name), normalize(description));
+        IndexedItem previous = itemsById.put(itemId, item);
+        Set<String> grams = item.grams();
+        if (previous != null) {
+            Set<String> staleGrams = previous.grams();
+            staleGrams.removeAll(grams);
+            removePostings(itemId, staleGrams);
+        }
+        for (String gram : grams) {
+            itemIdsByGram.computeIfAbsent(gram, key -> ConcurrentHashMap.newKeySet()).add(itemId);
+        }
+    }
+
+    private synchronized void remove(Long itemId) {
+        IndexedItem previous = itemsById.remove(itemId);
+        if (previous != null) {
+            removePostings(itemId, previous.grams());
+        }
+    }
+
+    private void removePostings(Long itemId, Collection<String> grams) {
+        for (String gram : grams) {
+            Set<Long> itemIds = itemIdsByGram.get(gram);
+            if (itemIds != null) {
+                itemIds.remove(itemId);
+                if (itemIds.isEmpty()) {
+                    itemIdsByGram.remove(gram, itemIds);
+                }
+            }
+        }
+    }
+
+    private Collection<Long> candidates(String query) {
+        if (query.length() <= GRAM_LENGTH) {
+            return itemIdsByGram.getOrDefault(query, Set.of());
+        }
+        return smallestPosting(grams(query, GRAM_LENGTH));
+    }
+
+    private Set<Long> smallestPosting(Set<String> grams) {
+        Set<Long> smallest = null;
+        for (String gram : grams) {
+            Set<Long> itemIds = itemIdsByGram.get(gram);
+            if (itemIds == null) {
+                return Set.of();
+            }
+            if (smallest == null || itemIds.size() < smallest.size()) {
+                smallest = itemIds;
+            }
+        }
+        return smallest == null ? Set.of() : smallest;
+    }
+
+    private static Set<String> grams(String value, int length) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + length <= value.length(); i++) {
+            grams.add(value.substring(i, i + length));
+        }
+        return grams;
+    }
+
+    private static Set<String> allGrams(String value) {
+        Set<String> grams = new HashSet<>();
+        for (int length = 1; length <= GRAM_LENGTH; length++) {
+            grams.addAll(grams(value, length));
+        }
+        return grams;
+    }
+
+    private static int occurrences(String value, String query) {
+        if (query.isEmpty()) {
+            return 0;
+        }
+        int count = 0;
+        for (int index = value.indexOf(query); index >= 0; index = value.indexOf(query, index + 1)) {
+            count++;
+        }
+        return count;
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+
+    private record SearchHit(Long itemId, boolean nameHit, int frequency) {
+    }
+
+    private record IndexedItem(Long id, String name, String description) {
+        boolean contains(String query) {
+            return name.contains(query) || description.contains(query);
+        }
+
+        SearchHit hit(String query) {
+            return new SearchHit(id, name.contains(query), occurrences(name, query) + occurrences(description, query));
+        }
+
+        Set<String> grams() {
+            Set<String> grams = allGrams(name);
+            grams.addAll(allGrams(description));
+            return grams;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package ru.practicum.shareit.item;
 
 import ru.practicum.shareit.item.comment.CommentDto;
 import ru.practicum.shareit.item.comment.NewCommentRequest;
+import ru.practicum.shareit.pagination.Cursor;
 import ru.practicum.shareit.request.ItemRequest;
 import ru.practicum.shareit.user.User;
 
@@ -16,6 +17,8 @@ public interface ItemService {
 
     ItemDto findItemById(Long itemId);
 
+    ItemCard findItemCard(Long itemId);
+
     ItemDto update(Long userId, Long itemId, UpdateItemRequest updateItemRequest);
 
     void delete(Long userId, Long itemId);
@@ -24,9 +27,15 @@ public interface ItemService {
 
     Item checkAvailableItem(Long itemId);
 
+    void checkAvailable(Item item);
+
+    Map<Long, Item> findAllByIds(Collection<Long> itemIds);
+
     void checkOwner(Long userId, Item item);
 
-    Collection<ItemDto> findAllByText(String text);
+    Collection<ItemDto> findAllByText(String text, Integer from, Integer size);
+
+    Collection<CommentDto> findCommentsByItemId(Long itemId, Cursor after, Integer limit);
 
     Map<Long, List<CommentDto>> findAllCommentsByItemIds(Collection<Long> itemIds);
 
@@ -34,6 +43,8 @@ public interface ItemService {
 
     CommentDto saveComment(User author, Item item, NewCommentRequest request);
 
+    Map<Long, ItemShortDto> findAllShortByIds(Collection<Long> itemIds);
+
     Map<Long, ItemDto> findItemDtoMapByIds(Collection<Long> itemIds);
 
     Collection<ItemShortDto> findAllByRequestId(Long requestId);
@@ -2,13 +2,19 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.summary.ItemBookingSummaryService;
 import ru.practicum.shareit.exception.ForbiddenException;
 import ru.practicum.shareit.exception.ItemUnavailableException;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.comment.*;
+import ru.practicum.shareit.pagination.Cursor;
 import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.ItemRequestMatcher;
+import ru.practicum.shareit.request.ItemRequestStorage;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserService;
 
@@ -16,6 +22,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 
@@ -24,9 +31,18 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class ItemServiceImpl implements ItemService {
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int RECENT_COMMENTS = 10;
+
     private final ItemStorage itemRepository;
     private final UserService userService;
     private final CommentStorage commentRepository;
+    private final ItemBookingSummaryService itemBookingSummaryService;
+    private final ItemSearchIndex itemSearchIndex;
+    private final ItemDtoCache itemDtoCache;
+    private final CommentEligibilityCache commentEligibilityCache;
+    private final ItemRequestStorage itemRequestRepository;
+    private final ItemRequestMatcher itemRequestMatcher;
 
 
     @Transactional
@@ -35,6 +51,10 @@ public class ItemServiceImpl implements ItemService {
         User owner = userService.checkUser(userId);
         Item item = ItemMapper.mapToItem(newItemRequest, owner, request);
         item = itemRepository.save(item);
+        itemBookingSummaryService.onItemCreated(item.getId());
+        itemSearchIndex.index(item);
+        itemRequestMatcher.match(item);
+        incrementRequestVersion(request);
         log.info("Пользователь {} зарегистрировал предмет {} с ID: {}",
                 owner.getEmail(),
                 item.getName(),
@@ -45,20 +65,35 @@ public class ItemServiceImpl implements ItemService {
 
     @Override
     public ItemDto findItemById(Long itemId) {
-        Item item = checkItem(itemId);
-        return ItemMapper.mapToItemDto(item, findAllCommentsByItemId(itemId));
+        return findItemCard(itemId).item();
     }
 
+    /**
+     * Версия читается до предмета и отзывов: тело карточки может оказаться новее версии, но не старше,
+     * так что клиент с этим ETag не получит 304 на устаревшие данные.
+     */
     @Override
-    public Collection<ItemDto> findAllByText(String text) {
-        Collection<Item> items = itemRepository.findAllByText(text);
-        List<Long> itemIds = items.stream().map(Item::getId).toList();
-        Map<Long, List<CommentDto>> commentsMap = findAllCommentsByItemIds(itemIds);
-        return items.stream()
-                .map(item -> {
-                    List<CommentDto> comments = commentsMap.getOrDefault(item.getId(), List.of());
-                    return ItemMapper.mapToItemDto(item, comments);
-                })
+    public ItemCard findItemCard(Long itemId) {
+        return itemDtoCache.get(itemId, id -> {
+            long version = itemRepository.findVersionById(id).orElseThrow(() -> {
+                log.error("Предмет не найден с ID: {}", id);
+                return new NotFoundException("Предмет не найден с ID: " + id);
+            });
+            return new ItemCard(ItemMapper.mapToItemDto(checkItem(id), findRecentCommentsByItemId(id)), version);
+        });
+    }
+
+    @Override
+    public Collection<ItemDto> findAllByText(String text, Integer from, Integer size) {
+        checkPage(from, size);
+        List<Long> itemIds = itemSearchIndex.search(text, from, size);
+        if (itemIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, ItemDto> items = findItemDtoMapByIds(itemIds);
+        return itemIds.stream()
+                .filter(items::containsKey)
+                .map(items::get)
                 .toList();
     }
 
@@ -70,8 +105,12 @@ public class ItemServiceImpl implements ItemService {
         updateItemRequest.setId(itemId);
         Item updatedItem = ItemMapper.updateItemFields(itemToUpdate, updateItemRequest);
         updatedItem = itemRepository.save(updatedItem);
+        itemSearchIndex.index(updatedItem);
+        itemRequestMatcher.match(updatedItem);
+        itemDtoCache.invalidate(itemId);
+        incrementRequestVersion(updatedItem.getRequest());
         log.info("Предмет обновлен с ID: {}", itemId);
-        return ItemMapper.mapToItemDto(updatedItem, findAllCommentsByItemId(updatedItem.getId()));
+        return ItemMapper.mapToItemDto(updatedItem, findRecentCommentsByItemId(updatedItem.getId()));
     }
 
     @Transactional
@@ -80,7 +119,17 @@ public class ItemServiceImpl implements ItemService {
         Item itemToDelete = checkItem(itemId);
         checkOwner(userId, itemToDelete);
         String itemName = itemToDelete.getName();
+        ItemRequest request = itemToDelete.getRequest();
         itemRepository.deleteById(itemId);
+        incrementRequestVersion(request);
+        itemBookingSummaryService.onItemDeleted(itemId);
+        itemSearchIndex.delete(itemId);
+        itemRequestMatcher.delete(itemId);
+        if (request != null && itemRepository.findAllByRequestId(request.getId()).isEmpty()) {
+            itemRequestMatcher.index(request);
+        }
+        itemDtoCache.invalidate(itemId);
+        commentEligibilityCache.invalidateItem(itemId);
         log.info("Предмет {} с ID: {} удален", itemName, itemId);
     }
 
@@ -95,11 +144,25 @@ public class ItemServiceImpl implements ItemService {
     @Override
     public Item checkAvailableItem(Long itemId) {
         Item item = checkItem(itemId);
+        checkAvailable(item);
+        return item;
+    }
+
+    @Override
+    public void checkAvailable(Item item) {
         if (!item.getAvailable()) {
-            log.error("Предмет с ID: {} недоступен для бронирования", itemId);
-            throw new ItemUnavailableException("Предмет с ID: " + itemId + " недоступен для бронирования");
+            log.error("Предмет с ID: {} недоступен для бронирования", item.getId());
+            throw new ItemUnavailableException("Предмет с ID: " + item.getId() + " недоступен для бронирования");
         }
-        return item;
+    }
+
+    @Override
+    public Map<Long, Item> findAllByIds(Collection<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return Map.of();
+        }
+        return itemRepository.findAllByIdIn(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
     }
 
     @Override
@@ -117,6 +180,8 @@ public class ItemServiceImpl implements ItemService {
     public CommentDto saveComment(User author, Item item, NewCommentRequest request) {
         Comment comment = CommentMapper.mapToComment(request, author, item);
         comment = commentRepository.save(comment);
+        itemRepository.incrementCommentCount(item.getId());
+        itemDtoCache.invalidate(item.getId());
         log.info("Пользователь {} оставил отзыв к предмету {} с ID: {}. Тело отзыва: {}",
                 author.getEmail(),
                 item.getName(),
@@ -125,25 +190,63 @@ public class ItemServiceImpl implements ItemService {
         return CommentMapper.mapToCommentDto(comment);
     }
 
+    @Override
+    public Collection<CommentDto> findCommentsByItemId(Long itemId, Cursor after, Integer limit) {
+        if (!itemRepository.existsById(itemId)) {
+            log.error("Предмет не найден с ID: {}", itemId);
+            throw new NotFoundException("Предмет не найден с ID: " + itemId);
+        }
+        Cursor before = Cursor.orLast(after);
+        return commentRepository.findPageByItemId(itemId, before.getTime(), before.getId(), toLimit(limit));
+    }
+
     @Override
     public Map<Long, List<CommentDto>> findAllCommentsByItemIds(Collection<Long> itemIds) {
-        return commentRepository.findByItemIdIn(itemIds).stream()
-                .map(CommentMapper::mapToCommentDto)
+        if (itemIds.isEmpty()) {
+            return Map.of();
+        }
+        return commentRepository.findByItemIdIn(itemIds, RECENT_COMMENTS).stream()
                 .collect(Collectors.groupingBy(CommentDto::getItemId));
     }
 
     @Override
     public Map<Long, List<ItemShortDto>> findAllItemsByRequestIds(Collection<Long> requestIds) {
-        return itemRepository.findByRequestIdIn(requestIds).stream()
-                .map(ItemMapper::mapToShortDto)
-                .collect(Collectors.groupingBy(ItemShortDto::getId));
+        if (requestIds.isEmpty()) {
+            return Map.of();
+        }
+        return itemRepository.findAllByRequestIdIn(requestIds).stream()
+                .collect(Collectors.groupingBy(RequestItemRow::getRequestId,
+                        Collectors.mapping(ItemMapper::mapToShortDto, Collectors.toList())));
     }
 
-    private Collection<CommentDto> findAllCommentsByItemId(Long itemId) {
-        return commentRepository.findByItemId(itemId)
-                .stream()
-                .map(CommentMapper::mapToCommentDto)
-                .toList();
+    private void incrementRequestVersion(ItemRequest request) {
+        if (request != null) {
+            itemRequestRepository.incrementVersion(request.getId());
+        }
+    }
+
+    private void checkPage(Integer from, Integer size) {
+        if (from == null || from < 0) {
+            log.error("Индекс первого элемента должен быть неотрицательным, передан: {}", from);
+            throw new ValidationException("Индекс первого элемента должен быть неотрицательным, передан: " + from);
+        }
+        if (size == null || size < 1 || size > MAX_PAGE_SIZE) {
+            log.error("Размер страницы должен быть от 1 до {}, передан: {}", MAX_PAGE_SIZE, size);
+            throw new ValidationException("Размер страницы должен быть от 1 до " + MAX_PAGE_SIZE + ", передан: " + size);
+        }
+    }
+
+    private Limit toLimit(Integer limit) {
+        if (limit == null || limit < 1 || limit > MAX_PAGE_SIZE) {
+            log.error("Размер страницы должен быть от 1 до {}, передан: {}", MAX_PAGE_SIZE, limit);
+            throw new ValidationException("Размер страницы должен быть от 1 до " + MAX_PAGE_SIZE + ", передан: " + limit);
+        }
+        return Limit.of(limit);
+    }
+
+    private Collection<CommentDto> findRecentCommentsByItemId(Long itemId) {
+        return commentRepository.findPageByItemId(itemId, Cursor.LAST.getTime(), Cursor.LAST.getId(),
+                Limit.of(RECENT_COMMENTS));
     }
 
     private Collection<CommentDto> findAllComments() {
@@ -153,23 +256,33 @@ public class ItemServiceImpl implements ItemService {
                 .toList();
     }
 
+    @Override
+    public Map<Long, ItemShortDto> findAllShortByIds(Collection<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return Map.of();
+        }
+        return itemRepository.findAllShortByIdIn(itemIds).stream()
+                .collect(Collectors.toMap(ItemShortDto::getId, Function.identity()));
+    }
+
     @Override
     public Map<Long, ItemDto> findItemDtoMapByIds(Collection<Long> itemIds) {
-        List<Item> items = itemRepository.findAllById(itemIds);
+        if (itemIds.isEmpty()) {
+            return Map.of();
+        }
+        List<ItemRow> items = itemRepository.findAllRowsByIdIn(itemIds);
         Map<Long, List<CommentDto>> commentMap = findAllCommentsByItemIds(itemIds);
 
         return items.stream()
                 .collect(Collectors.toMap(
-                        Item::getId,
+                        ItemRow::getId,
                         item -> ItemMapper.mapToItemDto(item, commentMap.getOrDefault(item.getId(), List.of()))
                 ));
     }
 
     @Override
     public Collection<ItemShortDto> findAllByRequestId(Long requestId) {
-        return itemRepository.findAllByRequestId(requestId).stream()
-                .map(ItemMapper::mapToShortDto)
-                .toList();
+        return itemRepository.findAllByRequestId(requestId);
     }
 
 
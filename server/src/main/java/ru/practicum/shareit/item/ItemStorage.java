@@ -1,11 +1,14 @@
 package ru.practicum.shareit.item;
 
 import lombok.NonNull;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface ItemStorage extends JpaRepository<Item, Long> {
@@ -15,21 +18,60 @@ public interface ItemStorage extends JpaRepository<Item, Long> {
     @Override
     Optional<Item> findById(@NonNull Long id);
 
-    @EntityGraph(value = "Item.forMapping")
-    Collection<Item> findAllByOwnerId(Long ownerId);
+    @Query("SELECT new ru.practicum.shareit.item.ItemRow(i.id, i.name, i.description, i.available, i.commentCount, " +
+            "o.id, o.name, o.email, r.id, r.description, r.created, ru.id, ru.name, ru.email, " +
+            "s.itemId, s.staleAt, s.last, s.next) " +
+            "FROM Item i JOIN i.owner o LEFT JOIN i.request r LEFT JOIN r.requestor ru " +
+            "LEFT JOIN ItemBookingSummary s ON s.itemId = i.id " +
+            "WHERE o.id = ?1")
+    List<ItemRow> findAllByOwnerId(Long ownerId);
 
-    @EntityGraph(value = "Item.forMapping")
-    @Query("select i " +
-            "from Item as i " +
-            "where " +
-            "i.available = true " +
-            "AND (LOWER(i.name) LIKE LOWER(CONCAT('%', ?1, '%')) " +
-            "OR LOWER(i.description) LIKE LOWER(CONCAT('%', ?1, '%')))")
-    Collection<Item> findAllByText(String text);
+    @Query("SELECT new ru.practicum.shareit.item.ItemRow(i.id, i.name, i.description, i.available, i.commentCount, " +
+            "o.id, o.name, o.email, r.id, r.description, r.created, ru.id, ru.name, ru.email) " +
+            "FROM Item i JOIN i.owner o LEFT JOIN i.request r LEFT JOIN r.requestor ru " +
+            "WHERE i.id IN ?1")
+    List<ItemRow> findAllRowsByIdIn(Collection<Long> ids);
 
+    /**
+     * Сущности для создания бронирований пачкой: бронирование ссылается на управляемый Item.
+     */
     @EntityGraph(value = "Item.forMapping")
-    Collection<Item> findAllByRequestId(Long requestId);
+    List<Item> findAllByIdIn(Collection<Long> ids);
 
-    @EntityGraph(value = "Item.forMapping")
-    Collection<Item> findByRequestIdIn(Collection<Long> requestIds);
-}
\ No newline at end of file
+    List<Item> findByAvailableTrueAndIdGreaterThanOrderById(Long afterId, Limit limit);
+
+    @Query("SELECT new ru.practicum.shareit.item.ItemShortDto(i.id, i.name, i.available, o.id, o.email) " +
+            "FROM Item i JOIN i.owner o " +
+            "WHERE i.request.id = ?1")
+    List<ItemShortDto> findAllByRequestId(Long requestId);
+
+    @Query("SELECT new ru.practicum.shareit.item.ItemShortDto(i.id, i.name, i.available, o.id, o.email) " +
+            "FROM Item i JOIN i.owner o " +
+            "WHERE i.id IN ?1")
+    List<ItemShortDto> findAllShortByIdIn(Collection<Long> ids);
+
+    @Query("SELECT new ru.practicum.shareit.item.RequestItemRow(i.request.id, i.id, i.name, i.available, o.id, o.email) " +
+            "FROM Item i JOIN i.owner o " +
+            "WHERE i.request.id IN ?1 " +
+            "ORDER BY i.request.id, i.id")
+    List<RequestItemRow> findAllByRequestIdIn(Collection<Long> requestIds);
+
+    @Query("SELECT i.version FROM Item i WHERE i.id = ?1")
+    Optional<Long> findVersionById(Long itemId);
+
+    /**
+     * Предметы, в карточке которых показан пользователь: как владелец, автор запроса или автор отзыва.
+     */
+    @Query("SELECT i.id FROM Item i WHERE i.owner.id = ?1 " +
+            "UNION SELECT i.id FROM Item i JOIN i.request r WHERE r.requestor.id = ?1 " +
+            "UNION SELECT c.item.id FROM Comment c WHERE c.author.id = ?1")
+    List<Long> findIdsShowingUser(Long userId);
+
+    @Modifying
+    @Query("UPDATE Item i SET i.version = i.version + 1 WHERE i.id IN ?1")
+    void incrementVersions(Collection<Long> itemIds);
+
+    @Modifying
+    @Query("UPDATE Item i SET i.commentCount = i.commentCount + 1, i.version = i.version + 1 WHERE i.id = ?1")
+    void incrementCommentCount(Long itemId);
+}
@@ -4,6 +4,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.BookingMapper;
 import ru.practicum.shareit.booking.BookingService;
 import ru.practicum.shareit.booking.BookingShortDto;
 import ru.practicum.shareit.exception.UnavailableToCommentException;
@@ -39,16 +40,33 @@ public class ItemUtilService {
     }
 
     public Collection<ItemDto> findAllByOwnerId(Long ownerId) {
-        Collection<Item> items = itemRepository.findAllByOwnerId(ownerId);
-        List<Long> itemIds = items.stream().map(Item::getId).toList();
+        List<ItemRow> items = itemRepository.findAllByOwnerId(ownerId);
+        List<Long> itemIds = items.stream().map(ItemRow::getId).toList();
         Map<Long, List<CommentDto>> commentsMap = itemService.findAllCommentsByItemIds(itemIds);
-        Map<Long, BookingShortDto> prevsMap = bookingService.findAllPrevsByItemIds(itemIds);
-        Map<Long, BookingShortDto> nextsMap = bookingService.findAllNextsByItemIds(itemIds);
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> missingIds = items.stream()
+                .filter(item -> !item.hasFreshSummaryAt(now))
+                .map(ItemRow::getId)
+                .toList();
+        Map<Long, BookingShortDto> prevsMap = missingIds.isEmpty()
+                ? Map.of()
+                : bookingService.findAllPrevsByItemIds(missingIds);
+        Map<Long, BookingShortDto> nextsMap = missingIds.isEmpty()
+                ? Map.of()
+                : bookingService.findAllNextsByItemIds(missingIds);
         return items.stream()
                 .map(item -> {
                     List<CommentDto> comments = commentsMap.getOrDefault(item.getId(), List.of());
-                    BookingShortDto prev = prevsMap.get(item.getId());
-                    BookingShortDto next = nextsMap.get(item.getId());
+                    if (!item.hasFreshSummaryAt(now)) {
+                        return ItemMapper.mapToItemDto(item, comments,
+                                prevsMap.get(item.getId()), nextsMap.get(item.getId()));
+                    }
+                    BookingShortDto prev = item.getLastBooking() == null
+                            ? null
+                            : BookingMapper.mapToShortDto(item.getId(), item.getLastBooking());
+                    BookingShortDto next = item.getNextBooking() == null
+                            ? null
+                            : BookingMapper.mapToShortDto(item.getId(), item.getNextBooking());
                     return ItemMapper.mapToItemDto(item, comments, prev, next);
                 })
                 .toList();
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.item;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class RequestItemRow {
+    private final Long requestId;
+    private final Long itemId;
+    private final String name;
+    private final Boolean available;
+    private final Long ownerId;
+    private final String ownerEmail;
+}
@@ -31,7 +31,8 @@ import java.time.LocalDateTime;
 @EqualsAndHashCode(of = "id")
 public class Comment {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "comment_seq")
+    @SequenceGenerator(name = "comment_seq", sequenceName = "comment_seq", allocationSize = CommentIdAllocator.BLOCK_SIZE)
     private Long id;
 
     @NotBlank
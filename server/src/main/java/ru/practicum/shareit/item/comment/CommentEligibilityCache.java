@@ -0,0 +1,73 @@
+package ru.practicum.shareit.item.comment;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.BookingStorage;
+import ru.practicum.shareit.util.TransactionHooks;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Кэш права оставить отзыв: у автора есть завершившееся бронирование предмета.
+ * Завершенное бронирование не перестает быть завершенным, поэтому положительный ответ живет долго;
+ * отрицательный - недолго, чтобы отзыв можно было оставить вскоре после окончания аренды.
+ * Читает бронирования напрямую из BookingStorage: ItemServiceImpl сбрасывает кэш при удалении предмета,
+ * а BookingService сам зависит от ItemService.
+ */
+@Component
+public class CommentEligibilityCache {
+    private final Cache<Key, Boolean> cache;
+    private final BookingStorage bookingRepository;
+
+    public CommentEligibilityCache(@Value("${shareit.cache.comment-eligibility.maximum-size}") long maximumSize,
+                                   @Value("${shareit.cache.comment-eligibility.expire-after-write}") Duration expireAfterWrite,
+                                   @Value("${shareit.cache.comment-eligibility.negative-expire-after-write}")
+                                   Duration negativeExpireAfterWrite,
+                                   BookingStorage bookingRepository,
+                                   MeterRegistry meterRegistry) {
+        this.bookingRepository = bookingRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<Key, Boolean>() {
+                    @Override
+                    public long expireAfterCreate(Key key, Boolean eligible, long currentTime) {
+                        return (eligible ? expireAfterWrite : negativeExpireAfterWrite).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Key key, Boolean eligible, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, eligible, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(Key key, Boolean eligible, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "comment-eligibility");
+    }
+
+    public boolean isEligible(Long authorId, Long itemId) {
+        return cache.get(new Key(authorId, itemId), key -> bookingRepository.existsByBookerIdAndItemIdAndEndBefore(
+                key.authorId(), key.itemId(), LocalDateTime.now()));
+    }
+
+    /**
+     * Предметы удаляются редко, поэтому записи предмета ищутся проходом по кэшу, без отдельного индекса.
+     */
+    public void invalidateItem(Long itemId) {
+        cache.asMap().keySet().removeIf(key -> key.itemId().equals(itemId));
+        TransactionHooks.afterCommit(() -> cache.asMap().keySet().removeIf(key -> key.itemId().equals(itemId)));
+    }
+
+    private record Key(Long authorId, Long itemId) {
+    }
+}
@@ -0,0 +1,39 @@
+package ru.practicum.shareit.item.comment;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Выделяет ID отзывов до вставки, чтобы асинхронный прием мог сразу вернуть ID клиенту.
+ * Работает как pooled-оптимизатор Hibernate для comment_seq: значение последовательности v
+ * закрепляет за вызывающим блок (v - BLOCK_SIZE, v], поэтому блоки не пересекаются с блоками Hibernate.
+ */
+@Component
+public class CommentIdAllocator {
+    static final int BLOCK_SIZE = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String nextValueSql;
+    private long nextId = 1;
+    private long maxId = 0;
+
+    public CommentIdAllocator(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.nextValueSql = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices()
+                .getDialect()
+                .getSequenceSupport()
+                .getSequenceNextValString("comment_seq");
+    }
+
+    public synchronized long nextId() {
+        if (nextId > maxId) {
+            Long value = jdbcTemplate.queryForObject(nextValueSql, Long.class);
+            maxId = value;
+            nextId = value - BLOCK_SIZE + 1;
+        }
+        return nextId++;
+    }
+}
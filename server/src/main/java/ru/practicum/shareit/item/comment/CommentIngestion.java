@@ -0,0 +1,253 @@
+package ru.practicum.shareit.item.comment;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.exception.CommentQueueOverflowException;
+import ru.practicum.shareit.exception.UnavailableToCommentException;
+import ru.practicum.shareit.item.ItemDtoCache;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserService;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Асинхронный прием отзывов (shareit.comments.async.enabled): право на отзыв проверяется по кэшу,
+ * отзыв получает ID из comment_seq и кладется в ограниченную очередь, клиент сразу получает 202.
+ * Фоновая запись забирает из очереди пачки до batch-size отзывов и вставляет каждую одним JDBC-батчем
+ * вместе с приращением comment_count; если пачка нарушила ограничение БД, отзывы пишутся по одному.
+ * Принятый отзыв отбрасывается только при нарушении ограничения (например, предмет удален), а при прочих
+ * ошибках БД остается в памяти и пишется повторно с экспоненциальной паузой от retry-backoff
+ * до retry-max-backoff; пока повтор не удался, новые отзывы из очереди не забираются.
+ * Метрики: shareit.comments.queue.depth, shareit.comments.retry.depth, shareit.comments.batch.size,
+ * shareit.comments.write.latency, shareit.comments.ingestion.lag (от постановки в очередь до коммита)
+ * и shareit.comments.ingested{outcome}.
+ */
+@Slf4j
+@Component
+public class CommentIngestion {
+    private static final String INSERT_COMMENT = "INSERT INTO comments (id, text, item_id, author_id, created) " +
+            "VALUES (?, ?, ?, ?, ?)";
+    private static final String INCREMENT_COMMENT_COUNT = "UPDATE items " +
+            "SET comment_count = comment_count + ?, version = version + 1 WHERE id = ?";
+
+    private final boolean enabled;
+    private final int batchSize;
+    private final BlockingQueue<PendingComment> queue;
+    private final Deque<PendingComment> retrying = new ArrayDeque<>();
+    private final Duration retryBackoff;
+    private final Duration retryMaxBackoff;
+    private final UserService userService;
+    private final ItemService itemService;
+    private final CommentEligibilityCache eligibilityCache;
+    private final CommentIdAllocator idAllocator;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ItemDtoCache itemDtoCache;
+    private final MeterRegistry meterRegistry;
+    private final DistributionSummary batchSizes;
+    private final Timer writeLatency;
+    private final Timer ingestionLag;
+    private Duration nextBackoff;
+    private long nextRetryAt;
+
+    public CommentIngestion(@Value("${shareit.comments.async.enabled}") boolean enabled,
+                            @Value("${shareit.comments.async.queue-capacity}") int queueCapacity,
+                            @Value("${shareit.comments.async.batch-size}") int batchSize,
+                            @Value("${shareit.comments.async.retry-backoff}") Duration retryBackoff,
+                            @Value("${shareit.comments.async.retry-max-backoff}") Duration retryMaxBackoff,
+                            UserService userService,
+                            ItemService itemService,
+                            CommentEligibilityCache eligibilityCache,
+                            CommentIdAllocator idAllocator,
+                            JdbcTemplate jdbcTemplate,
+                            PlatformTransactionManager transactionManager,
+                            ItemDtoCache itemDtoCache,
+                            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.batchSize = Math.max(1, batchSize);
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        this.retryBackoff = retryBackoff;
+        this.retryMaxBackoff = retryMaxBackoff;
+        this.nextBackoff = retryBackoff;
+        this.userService = userService;
+        this.itemService = itemService;
+        this.eligibilityCache = eligibilityCache;
+        this.idAllocator = idAllocator;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.itemDtoCache = itemDtoCache;
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("shareit.comments.queue.depth", queue, Collection::size).register(meterRegistry);
+        Gauge.builder("shareit.comments.retry.depth", retrying, Collection::size).register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("shareit.comments.batch.size").register(meterRegistry);
+        this.writeLatency = Timer.builder("shareit.comments.write.latency").register(meterRegistry);
+        this.ingestionLag = Timer.builder("shareit.comments.ingestion.lag").register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public CommentDto submit(Long authorId, Long itemId, NewCommentRequest request) {
+        User author = userService.checkUser(authorId);
+        itemService.checkItem(itemId);
+        if (!eligibilityCache.isEligible(authorId, itemId)) {
+            log.error("Пользователь с ID: {} никогда не брал в аренду предмет с ID: {}, либо срок аренды еще не прошел",
+                    authorId, itemId);
+            throw new UnavailableToCommentException("Пользователь с ID: " + authorId
+                    + " никогда не брал в аренду предмет с ID: " + itemId
+                    + ", либо срок аренды еще не прошел");
+        }
+        PendingComment comment = new PendingComment(idAllocator.nextId(), request.getText(), itemId, authorId,
+                LocalDateTime.now(), System.nanoTime());
+        if (!queue.offer(comment)) {
+            ingested("rejected").increment();
+            log.warn("Очередь отзывов переполнена, отзыв пользователя с ID: {} к предмету с ID: {} отклонен",
+                    authorId, itemId);
+            throw new CommentQueueOverflowException("Очередь отзывов переполнена, повторите запрос позже");
+        }
+        log.debug("Отзыв с ID: {} к предмету с ID: {} поставлен в очередь", comment.id(), itemId);
+        return new CommentDto(comment.id(), comment.text(), itemId, author.getName(), comment.created());
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.comments.async.flush-delay}")
+    public synchronized void flush() {
+        if (!retrying.isEmpty() && (System.nanoTime() - nextRetryAt < 0 || !retry())) {
+            return;
+        }
+        List<PendingComment> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            List<PendingComment> failed = write(batch);
+            batch.clear();
+            if (!failed.isEmpty()) {
+                postpone(failed);
+                return;
+            }
+        }
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        nextRetryAt = System.nanoTime();
+        flush();
+        int unwritten = retrying.size() + queue.size();
+        if (unwritten > 0) {
+            log.error("При остановке не записано {} принятых отзывов", unwritten);
+        }
+    }
+
+    private boolean retry() {
+        List<PendingComment> batch = new ArrayList<>(retrying);
+        retrying.clear();
+        List<PendingComment> failed = write(batch);
+        if (!failed.isEmpty()) {
+            postpone(failed);
+            return false;
+        }
+        nextBackoff = retryBackoff;
+        log.info("Отложенные отзывы записаны: {}", batch.size());
+        return true;
+    }
+
+    private void postpone(List<PendingComment> failed) {
+        retrying.addAll(failed);
+        ingested("retried").increment(failed.size());
+        nextRetryAt = System.nanoTime() + nextBackoff.toNanos();
+        log.warn("{} отзывов не записаны, повтор через {}", failed.size(), nextBackoff);
+        Duration doubled = nextBackoff.multipliedBy(2);
+        nextBackoff = doubled.compareTo(retryMaxBackoff) < 0 ? doubled : retryMaxBackoff;
+    }
+
+    /**
+     * Возвращает отзывы, которые не записались из-за временной ошибки и должны быть повторены.
+     */
+    private List<PendingComment> write(List<PendingComment> batch) {
+        batchSizes.record(batch.size());
+        try {
+            writeLatency.record(() -> transactionTemplate.executeWithoutResult(status -> insert(batch)));
+            written(batch);
+            return List.of();
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Пачка из {} отзывов не записана, запись по одному: {}", batch.size(), e.getMessage());
+            List<PendingComment> failed = new ArrayList<>();
+            for (PendingComment comment : batch) {
+                writeOne(comment, failed);
+            }
+            return failed;
+        } catch (DataAccessException e) {
+            log.warn("Пачка из {} отзывов не записана: {}", batch.size(), e.getMessage());
+            return List.copyOf(batch);
+        }
+    }
+
+    private void writeOne(PendingComment comment, List<PendingComment> failed) {
+        try {
+            writeLatency.record(() -> transactionTemplate.executeWithoutResult(status -> insert(List.of(comment))));
+            written(List.of(comment));
+        } catch (DataIntegrityViolationException e) {
+            ingested("failed").increment();
+            log.error("Отзыв с ID: {} к предмету с ID: {} отброшен: {}", comment.id(), comment.itemId(), e.getMessage());
+        } catch (DataAccessException e) {
+            failed.add(comment);
+        }
+    }
+
+    private void insert(List<PendingComment> batch) {
+        jdbcTemplate.batchUpdate(INSERT_COMMENT, batch, batch.size(), (statement, comment) -> {
+            statement.setLong(1, comment.id());
+            statement.setString(2, comment.text());
+            statement.setLong(3, comment.itemId());
+            statement.setLong(4, comment.authorId());
+            statement.setObject(5, comment.created());
+        });
+        Map<Long, Long> countsByItem = new TreeMap<>();
+        batch.forEach(comment -> countsByItem.merge(comment.itemId(), 1L, Long::sum));
+        jdbcTemplate.batchUpdate(INCREMENT_COMMENT_COUNT, List.copyOf(countsByItem.entrySet()), countsByItem.size(),
+                (statement, count) -> {
+                    statement.setLong(1, count.getValue());
+                    statement.setLong(2, count.getKey());
+                });
+        countsByItem.keySet().forEach(itemDtoCache::invalidate);
+    }
+
+    private void written(List<PendingComment> batch) {
+        long now = System.nanoTime();
+        batch.forEach(comment -> ingestionLag.record(now - comment.enqueuedAt(), TimeUnit.NANOSECONDS));
+        ingested("written").increment(batch.size());
+    }
+
+    private Counter ingested(String outcome) {
+        return Counter.builder("shareit.comments.ingested")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private record PendingComment(long id, String text, Long itemId, Long authorId,
+                                  LocalDateTime created, long enqueuedAt) {
+    }
+}
@@ -1,10 +1,14 @@
 package ru.practicum.shareit.item.comment;
 
 import lombok.NonNull;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 
@@ -14,9 +18,22 @@ public interface CommentStorage extends JpaRepository<Comment, Long> {
     @Override
     Optional<Comment> findById(@NonNull Long id);
 
-    @EntityGraph(value = "Comment.forMapping")
-    Collection<Comment> findByItemId(Long itemId);
+    @Query("SELECT new ru.practicum.shareit.item.comment.CommentDto(c.id, c.text, c.item.id, a.name, c.created) " +
+            "FROM Comment c JOIN c.author a " +
+            "WHERE c.item.id = ?1 " +
+            "AND (c.created < ?2 OR (c.created = ?2 AND c.id < ?3)) " +
+            "ORDER BY c.created DESC, c.id DESC")
+    List<CommentDto> findPageByItemId(Long itemId, LocalDateTime beforeCreated, Long beforeId, Limit limit);
 
-    @EntityGraph(value = "Comment.forMapping")
-    Collection<Comment> findByItemIdIn(Collection<Long> itemIds);
+    /**
+     * Не более perItemLimit последних отзывов на каждый предмет, от новых к старым.
+     */
+    @Query("SELECT new ru.practicum.shareit.item.comment.CommentDto(r.id, r.text, r.itemId, r.authorName, r.created) " +
+            "FROM (SELECT c.id AS id, c.text AS text, c.item.id AS itemId, a.name AS authorName, c.created AS created, " +
+            "      ROW_NUMBER() OVER (PARTITION BY c.item.id ORDER BY c.created DESC, c.id DESC) AS rn " +
+            "      FROM Comment c JOIN c.author a " +
+            "      WHERE c.item.id IN ?1) r " +
+            "WHERE r.rn <= ?2 " +
+            "ORDER BY r.itemId, r.created DESC, r.id DESC")
+    List<CommentDto> findByItemIdIn(Collection<Long> itemIds, int perItemLimit);
 }
@@ -0,0 +1,53 @@
+package ru.practicum.shareit.pagination;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import ru.practicum.shareit.exception.ValidationException;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Позиция keyset-пагинации по паре (время, id) в формате {@code 2025-06-01T10:00:00_42}.
+ * Следующая страница запрашивается с курсором, собранным из последнего элемента текущей.
+ * FIRST начинает выдачу по возрастанию, LAST — по убыванию.
+ */
+@Getter
+@EqualsAndHashCode
+@RequiredArgsConstructor
+public final class Cursor {
+    public static final Cursor FIRST = new Cursor(LocalDateTime.of(1970, 1, 1, 0, 0), 0L);
+    public static final Cursor LAST = new Cursor(LocalDateTime.of(9999, 12, 31, 23, 59, 59), Long.MAX_VALUE);
+
+    private static final String SEPARATOR = "_";
+
+    private final LocalDateTime time;
+    private final Long id;
+
+    public static Cursor from(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        int separatorIndex = value.lastIndexOf(SEPARATOR);
+        try {
+            return new Cursor(LocalDateTime.parse(value.substring(0, separatorIndex)),
+                    Long.parseLong(value.substring(separatorIndex + 1)));
+        } catch (DateTimeParseException | IndexOutOfBoundsException | NumberFormatException e) {
+            throw new ValidationException("Некорректный курсор пагинации: " + value);
+        }
+    }
+
+    public static Cursor orFirst(Cursor cursor) {
+        return cursor == null ? FIRST : cursor;
+    }
+
+    public static Cursor orLast(Cursor cursor) {
+        return cursor == null ? LAST : cursor;
+    }
+
+    @Override
+    public String toString() {
+        return time + SEPARATOR + id;
+    }
+}
@@ -1,9 +1,9 @@
 package ru.practicum.shareit.request;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
-import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
@@ -23,7 +23,6 @@ import java.time.LocalDateTime;
 })
 @Table(name = "item_requests")
 @Data
-@AllArgsConstructor
 @NoArgsConstructor
 @EqualsAndHashCode(of = {"id"})
 public class ItemRequest {
@@ -44,4 +43,18 @@ public class ItemRequest {
     @CreationTimestamp
     @Column(name = "created", nullable = false)
     private LocalDateTime created;
+
+    /**
+     * Меняется при изменении самого запроса и откликнувшихся на него предметов, используется как ETag.
+     */
+    @JsonIgnore
+    @Column(name = "version", insertable = false, updatable = false)
+    private Long version;
+
+    public ItemRequest(Long id, String description, User requestor, LocalDateTime created) {
+        this.id = id;
+        this.description = description;
+        this.requestor = requestor;
+        this.created = created;
+    }
 }
@@ -1,7 +1,10 @@
 package ru.practicum.shareit.request;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.pagination.Cursor;
 
 import java.util.Collection;
 
@@ -20,17 +23,24 @@ public class ItemRequestController {
 
     @GetMapping
     public Collection<ItemRequestDto> getAllByRequestorId(@RequestHeader("X-Sharer-User-Id") Long requestorId) {
-        return itemRequestService.findAllByRequestorId(requestorId, true);
+        return itemRequestService.findAllByRequestorId(requestorId);
     }
 
     @GetMapping("/all")
-    public Collection<ItemRequestDto> getAll(@RequestHeader("X-Sharer-User-Id") Long requestorId) {
-        return itemRequestService.findAllByRequestorId(requestorId, false);
+    public Collection<ItemRequestDto> getAll(@RequestHeader("X-Sharer-User-Id") Long requestorId,
+                                             @RequestParam(required = false) String after,
+                                             @RequestParam(required = false, defaultValue = "20") Integer limit) {
+        return itemRequestService.findAllOthers(requestorId, Cursor.from(after), limit);
     }
 
     @GetMapping("/{requestId}")
-    public ItemRequestDto getByRequestId(@RequestHeader("X-Sharer-User-Id") Long requestorId,
-                                         @PathVariable Long requestId) {
-        return itemRequestService.findItemRequestById(requestorId, requestId);
+    public ResponseEntity<ItemRequestDto> getByRequestId(@RequestHeader("X-Sharer-User-Id") Long requestorId,
+                                                         @PathVariable Long requestId,
+                                                         WebRequest request) {
+        String eTag = itemRequestService.findItemRequestETag(requestorId, requestId);
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(eTag).body(itemRequestService.findItemRequestById(requestorId, requestId));
     }
 }
@@ -7,6 +7,7 @@ import ru.practicum.shareit.user.UserDto;
 
 import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.List;
 
 
 @Data
@@ -16,5 +17,6 @@ public class ItemRequestDto {
     private String description;
     private UserDto requestor;
     private Collection<ItemShortDto> items;
+    private Collection<ItemShortDto> suggestions = List.of();
     private LocalDateTime created;
 }
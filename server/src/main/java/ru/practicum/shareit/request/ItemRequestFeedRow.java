@@ -0,0 +1,23 @@
+package ru.practicum.shareit.request;
+
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Строка ленты чужих запросов: в отличие от своих запросов, автор у каждой строки свой.
+ */
+@Getter
+public class ItemRequestFeedRow extends ItemRequestRow {
+    private final Long requestorId;
+    private final String requestorName;
+    private final String requestorEmail;
+
+    public ItemRequestFeedRow(Long id, String description, LocalDateTime created,
+                              Long requestorId, String requestorName, String requestorEmail) {
+        super(id, description, created);
+        this.requestorId = requestorId;
+        this.requestorName = requestorName;
+        this.requestorEmail = requestorEmail;
+    }
+}
@@ -25,6 +25,28 @@ public final class ItemRequestMapper {
         return itemRequestDto;
     }
 
+    public static ItemRequestDto mapToItemRequestDto(ItemRequestRow row,
+                                                     UserDto requestorDto,
+                                                     Collection<ItemShortDto> items) {
+        ItemRequestDto itemRequestDto = new ItemRequestDto();
+
+        itemRequestDto.setId(row.getId());
+        itemRequestDto.setDescription(row.getDescription());
+        itemRequestDto.setRequestor(requestorDto);
+        itemRequestDto.setItems(items);
+        itemRequestDto.setCreated(row.getCreated());
+
+        return itemRequestDto;
+    }
+
+    public static ItemRequestDto mapToItemRequestDto(ItemRequestFeedRow row, Collection<ItemShortDto> items) {
+        UserDto requestorDto = new UserDto();
+        requestorDto.setId(row.getRequestorId());
+        requestorDto.setName(row.getRequestorName());
+        requestorDto.setEmail(row.getRequestorEmail());
+        return mapToItemRequestDto(row, requestorDto, items);
+    }
+
     public static ItemRequest mapToItemRequest(NewItemRequestRequest request, User requestor) {
         ItemRequest itemRequest = new ItemRequest();
         itemRequest.setDescription(request.getDescription());
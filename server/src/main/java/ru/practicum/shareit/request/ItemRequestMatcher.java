@@ -0,0 +1,229 @@
+package ru.practicum.shareit.request;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemStorage;
+import ru.practicum.shareit.util.TransactionHooks;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Обратный поиск: в памяти индексируются термы описаний открытых запросов (без откликнувшихся предметов),
+ * а каждый сохраненный или измененный доступный предмет сопоставляется с ними по спискам запросов своих термов.
+ * Стоимость сопоставления зависит от длины этих списков, а не от числа открытых запросов.
+ * Предмет предлагается запросу, если в нем нашлась хотя бы половина термов запроса;
+ * на запрос хранится не более MAX_SUGGESTIONS лучших предложений.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemRequestMatcher {
+    static final int STEM_LENGTH = 4;
+    static final int MIN_TERM_LENGTH = 3;
+    static final int MAX_SUGGESTIONS = 10;
+    private static final Set<String> STOP_WORDS = Set.of(
+            "для", "что", "это", "как", "или", "при", "без", "под", "над", "кто", "нибудь",
+            "нужен", "нужна", "нужно", "нужны", "хочу", "хотел", "хотела", "хотелось", "ищу", "воспользоваться",
+            "the", "and", "for", "with", "need");
+    private static final Comparator<Suggestion> RANKING = Comparator
+            .comparing(Suggestion::score, Comparator.reverseOrder())
+            .thenComparing(Suggestion::itemId, Comparator.reverseOrder());
+    private static final int WARM_UP_BATCH_SIZE = 1000;
+
+    private final ItemRequestStorage itemRequestRepository;
+    private final ItemStorage itemRepository;
+    private final Map<Long, IndexedRequest> requestsById = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> requestIdsByTerm = new ConcurrentHashMap<>();
+    private final Map<Long, Map<Long, Suggestion>> suggestionsByRequest = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> requestIdsByItem = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void warmUp() {
+        Long afterId = 0L;
+        List<OpenItemRequest> requests = itemRequestRepository.findOpenByIdGreaterThan(afterId,
+                Limit.of(WARM_UP_BATCH_SIZE));
+        while (!requests.isEmpty()) {
+            requests.forEach(request -> put(request.getId(), request.getRequestorId(), request.getDescription()));
+            afterId = requests.get(requests.size() - 1).getId();
+            requests = itemRequestRepository.findOpenByIdGreaterThan(afterId, Limit.of(WARM_UP_BATCH_SIZE));
+        }
+        afterId = 0L;
+        List<Item> items = itemRepository.findByAvailableTrueAndIdGreaterThanOrderById(afterId,
+                Limit.of(WARM_UP_BATCH_SIZE));
+        while (!items.isEmpty()) {
+            items.forEach(item -> percolate(item.getId(), item.getOwner().getId(), item.getName(), item.getDescription()));
+            afterId = items.get(items.size() - 1).getId();
+            items = itemRepository.findByAvailableTrueAndIdGreaterThanOrderById(afterId, Limit.of(WARM_UP_BATCH_SIZE));
+        }
+        log.info("Индекс открытых запросов загружен: {} запросов, {} термов, {} запросов с предложениями",
+                requestsById.size(), requestIdsByTerm.size(), suggestionsByRequest.size());
+    }
+
+    public void index(ItemRequest request) {
+        Long requestId = request.getId();
+        Long requestorId = request.getRequestor().getId();
+        String description = request.getDescription();
+        TransactionHooks.afterCommit(() -> put(requestId, requestorId, description));
+    }
+
+    public void match(Item item) {
+        Long itemId = item.getId();
+        Long ownerId = item.getOwner().getId();
+        String name = item.getName();
+        String description = item.getDescription();
+        boolean available = Boolean.TRUE.equals(item.getAvailable());
+        Long answeredRequestId = item.getRequest() == null ? null : item.getRequest().getId();
+        TransactionHooks.afterCommit(() -> {
+            if (answeredRequestId != null) {
+                close(answeredRequestId);
+            }
+            if (available) {
+                percolate(itemId, ownerId, name, description);
+            } else {
+                removeItem(itemId);
+            }
+        });
+    }
+
+    public void delete(Long itemId) {
+        TransactionHooks.afterCommit(() -> removeItem(itemId));
+    }
+
+    public synchronized Map<Long, List<Long>> findSuggestedItemIds(Collection<Long> requestIds) {
+        Map<Long, List<Long>> suggestions = new HashMap<>();
+        for (Long requestId : requestIds) {
+            Map<Long, Suggestion> requestSuggestions = suggestionsByRequest.get(requestId);
+            if (requestSuggestions != null && !requestSuggestions.isEmpty()) {
+                suggestions.put(requestId, requestSuggestions.values().stream()
+                        .sorted(RANKING)
+                        .map(Suggestion::itemId)
+                        .toList());
+            }
+        }
+        return suggestions;
+    }
+
+    private synchronized void put(Long requestId, Long requestorId, String description) {
+        Set<String> terms = terms(description);
+        if (terms.isEmpty() || requestsById.containsKey(requestId)) {
+            return;
+        }
+        requestsById.put(requestId, new IndexedRequest(requestId, requestorId, terms));
+        for (String term : terms) {
+            requestIdsByTerm.computeIfAbsent(term, key -> ConcurrentHashMap.newKeySet()).add(requestId);
+        }
+    }
+
+    private synchronized void close(Long requestId) {
+        IndexedRequest request = requestsById.remove(requestId);
+        if (request != null) {
+            for (String term : request.terms()) {
+                Set<Long> requestIds = requestIdsByTerm.get(term);
+                if (requestIds != null) {
+                    requestIds.remove(requestId);
+                    if (requestIds.isEmpty()) {
+                        requestIdsByTerm.remove(term, requestIds);
+                    }
+                }
+            }
+        }
+        Map<Long, Suggestion> suggestions = suggestionsByRequest.remove(requestId);
+        if (suggestions != null) {
+            suggestions.keySet().forEach(itemId -> unlink(itemId, requestId));
+        }
+    }
+
+    private synchronized void percolate(Long itemId, Long ownerId, String name, String description) {
+        removeItem(itemId);
+        Map<Long, Integer> matchedTerms = new HashMap<>();
+        Set<String> itemTerms = terms(name);
+        itemTerms.addAll(terms(description));
+        for (String term : itemTerms) {
+            Set<Long> requestIds = requestIdsByTerm.get(term);
+            if (requestIds != null) {
+                requestIds.forEach(requestId -> matchedTerms.merge(requestId, 1, Integer::sum));
+            }
+        }
+        matchedTerms.forEach((requestId, matched) -> {
+            IndexedRequest request = requestsById.get(requestId);
+            if (request != null && !request.requestorId().equals(ownerId) && request.isMatchedBy(matched)) {
+                suggest(requestId, new Suggestion(itemId, matched * 100 / request.terms().size()));
+            }
+        });
+    }
+
+    private void suggest(Long requestId, Suggestion suggestion) {
+        Map<Long, Suggestion> suggestions = suggestionsByRequest.computeIfAbsent(requestId, key -> new HashMap<>());
+        suggestions.put(suggestion.itemId(), suggestion);
+        requestIdsByItem.computeIfAbsent(suggestion.itemId(), key -> new HashSet<>()).add(requestId);
+        if (suggestions.size() > MAX_SUGGESTIONS) {
+            Suggestion worst = suggestions.values().stream().max(RANKING).orElseThrow();
+            suggestions.remove(worst.itemId());
+            unlink(worst.itemId(), requestId);
+        }
+    }
+
+    private synchronized void removeItem(Long itemId) {
+        Set<Long> requestIds = requestIdsByItem.remove(itemId);
+        if (requestIds == null) {
+            return;
+        }
+        for (Long requestId : requestIds) {
+            Map<Long, Suggestion> suggestions = suggestionsByRequest.get(requestId);
+            if (suggestions != null) {
+                suggestions.remove(itemId);
+                if (suggestions.isEmpty()) {
+                    suggestionsByRequest.remove(requestId);
+                }
+            }
+        }
+    }
+
+    private void unlink(Long itemId, Long requestId) {
+        Set<Long> requestIds = requestIdsByItem.get(itemId);
+        if (requestIds != null) {
+            requestIds.remove(requestId);
+            if (requestIds.isEmpty()) {
+                requestIdsByItem.remove(itemId);
+            }
+        }
+    }
+
+    /**
+     * Термы - слова от MIN_TERM_LENGTH букв без стоп-слов, усеченные до STEM_LENGTH символов,
+     * чтобы "щётка" и "щёткой" совпадали.
+     */
+    static Set<String> terms(String value) {
+        Set<String> terms = new HashSet<>();
+        if (value == null) {
+            return terms;
+        }
+        for (String word : value.toLowerCase(Locale.ROOT).replace('ё', 'е').split("[^\\p{L}\\p{N}]+")) {
+            if (word.length() >= MIN_TERM_LENGTH && !STOP_WORDS.contains(word)) {
+                terms.add(word.length() > STEM_LENGTH ? word.substring(0, STEM_LENGTH) : word);
+            }
+        }
+        return terms;
+    }
+
+    private record Suggestion(Long itemId, int score) {
+    }
+
+    private record IndexedRequest(Long id, Long requestorId, Set<String> terms) {
+        boolean isMatchedBy(int matched) {
+            return matched * 2 >= terms.size();
+        }
+    }
+}
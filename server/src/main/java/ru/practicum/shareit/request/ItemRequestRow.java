@@ -0,0 +1,14 @@
+package ru.practicum.shareit.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@AllArgsConstructor
+public class ItemRequestRow {
+    private final Long id;
+    private final String description;
+    private final LocalDateTime created;
+}
@@ -2,6 +2,7 @@ package ru.practicum.shareit.request;
 
 
 import ru.practicum.shareit.item.ItemShortDto;
+import ru.practicum.shareit.pagination.Cursor;
 
 import java.util.Collection;
 
@@ -15,6 +16,10 @@ public interface ItemRequestService {
 
     ItemRequestDto findItemRequestById(Long requestorId, Long itemRequestId);
 
-    Collection<ItemRequestDto> findAllByRequestorId(Long requestorId, Boolean isForRequestor);
+    String findItemRequestETag(Long requestorId, Long itemRequestId);
+
+    Collection<ItemRequestDto> findAllByRequestorId(Long requestorId);
+
+    Collection<ItemRequestDto> findAllOthers(Long userId, Cursor after, Integer limit);
 
 }
@@ -2,11 +2,14 @@ package ru.practicum.shareit.request;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.ItemService;
 import ru.practicum.shareit.item.ItemShortDto;
+import ru.practicum.shareit.pagination.Cursor;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserDto;
 import ru.practicum.shareit.user.UserMapper;
@@ -16,15 +19,20 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
 
 @Service
 @Slf4j
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class ItemRequestServiceImpl implements ItemRequestService {
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final ItemRequestStorage itemRequestRepository;
     private final UserService userService;
     private final ItemService itemService;
+    private final ItemRequestMatcher itemRequestMatcher;
 
     @Transactional
     @Override
@@ -32,6 +40,7 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         User requestor = userService.checkUser(userId);
         ItemRequest itemRequest = ItemRequestMapper.mapToItemRequest(request, requestor);
         itemRequest = itemRequestRepository.save(itemRequest);
+        itemRequestMatcher.index(itemRequest);
         log.info("Пользователь {} создал запрос с ID: {} на предмет с описанием: {}",
                 requestor.getEmail(),
                 itemRequest.getId(),
@@ -67,18 +76,78 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     }
 
     @Override
-    public Collection<ItemRequestDto> findAllByRequestorId(Long requestorId, Boolean isForRequestor) {
+    public String findItemRequestETag(Long requestorId, Long itemRequestId) {
+        userService.checkUser(requestorId);
+        return itemRequestRepository.findVersionById(itemRequestId)
+                .map(String::valueOf)
+                .orElseThrow(() -> {
+                    log.error("Запрос не найден с ID: {}", itemRequestId);
+                    return new NotFoundException("Запрос не найден с ID: " + itemRequestId);
+                });
+    }
+
+    @Override
+    public Collection<ItemRequestDto> findAllByRequestorId(Long requestorId) {
         User requestor = userService.checkUser(requestorId);
-        UserDto requestorDto = UserMapper.mapToUserDto(requestor);
-        Collection<ItemRequest> requests = isForRequestor
-                ? itemRequestRepository.findAllByRequestorIdOrderByCreatedDesc(requestorId)
-                : itemRequestRepository.findAllByRequestorIdNotOrderByCreatedDesc(requestorId);
-        Map<Long, List<ItemShortDto>> requestToItemsMap = itemService
-                .findAllItemsByRequestIds(requests.stream().map(ItemRequest::getId).toList());
+        Collection<ItemRequestDto> requests = mapToItemRequestDtos(
+                itemRequestRepository.findAllByRequestorIdOrderByCreatedDesc(requestorId),
+                UserMapper.mapToUserDto(requestor));
+        addSuggestions(requests);
+        return requests;
+    }
+
+    @Override
+    public Collection<ItemRequestDto> findAllOthers(Long userId, Cursor after, Integer limit) {
+        userService.checkUser(userId);
+        Cursor before = Cursor.orLast(after);
+        List<ItemRequestFeedRow> requests = itemRequestRepository.findPageByRequestorIdNot(userId,
+                before.getTime(), before.getId(), toLimit(limit));
+        Map<Long, List<ItemShortDto>> requestToItemsMap = findItemsByRequests(requests);
+        return requests
+                .stream()
+                .map(request -> ItemRequestMapper.mapToItemRequestDto(request,
+                        requestToItemsMap.getOrDefault(request.getId(), List.of())))
+                .toList();
+    }
+
+    private Collection<ItemRequestDto> mapToItemRequestDtos(List<ItemRequestRow> requests, UserDto requestorDto) {
+        Map<Long, List<ItemShortDto>> requestToItemsMap = findItemsByRequests(requests);
         return requests
                 .stream()
                 .map(request -> ItemRequestMapper.mapToItemRequestDto(request, requestorDto,
-                        requestToItemsMap.get(request.getId())))
+                        requestToItemsMap.getOrDefault(request.getId(), List.of())))
                 .toList();
     }
+
+    private Map<Long, List<ItemShortDto>> findItemsByRequests(List<? extends ItemRequestRow> requests) {
+        if (requests.isEmpty()) {
+            return Map.of();
+        }
+        return itemService.findAllItemsByRequestIds(requests.stream().map(ItemRequestRow::getId).toList());
+    }
+
+    private void addSuggestions(Collection<ItemRequestDto> requests) {
+        Map<Long, List<Long>> suggestedItemIds = itemRequestMatcher.findSuggestedItemIds(
+                requests.stream().map(ItemRequestDto::getId).toList());
+        if (suggestedItemIds.isEmpty()) {
+            return;
+        }
+        Map<Long, ItemShortDto> items = itemService.findAllShortByIds(suggestedItemIds.values().stream()
+                .flatMap(List::stream)
+                .collect(Collectors.toSet()));
+        for (ItemRequestDto request : requests) {
+            request.setSuggestions(suggestedItemIds.getOrDefault(request.getId(), List.of()).stream()
+                    .map(items::get)
+                    .filter(Objects::nonNull)
+                    .toList());
+        }
+    }
+
+    private Limit toLimit(Integer limit) {
+        if (limit == null || limit < 1 || limit > MAX_PAGE_SIZE) {
+            log.error("Размер страницы должен быть от 1 до {}, передан: {}", MAX_PAGE_SIZE, limit);
+            throw new ValidationException("Размер страницы должен быть от 1 до " + MAX_PAGE_SIZE + ", передан: " + limit);
+        }
+        return Limit.of(limit);
+    }
 }
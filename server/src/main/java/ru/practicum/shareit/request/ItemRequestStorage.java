@@ -2,10 +2,14 @@ package ru.practicum.shareit.request;
 
 
 import lombok.NonNull;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
-import java.util.Collection;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 public interface ItemRequestStorage extends JpaRepository<ItemRequest, Long> {
@@ -14,9 +18,42 @@ public interface ItemRequestStorage extends JpaRepository<ItemRequest, Long> {
     @Override
     Optional<ItemRequest> findById(@NonNull Long id);
 
-    @EntityGraph(value = "ItemRequest.forMapping")
-    Collection<ItemRequest> findAllByRequestorIdOrderByCreatedDesc(Long requestorId);
+    @Query("SELECT new ru.practicum.shareit.request.ItemRequestRow(r.id, r.description, r.created) " +
+            "FROM ItemRequest r " +
+            "WHERE r.requestor.id = ?1 " +
+            "ORDER BY r.created DESC")
+    List<ItemRequestRow> findAllByRequestorIdOrderByCreatedDesc(Long requestorId);
 
-    @EntityGraph(value = "ItemRequest.forMapping")
-    Collection<ItemRequest> findAllByRequestorIdNotOrderByCreatedDesc(Long requestorId);
+    @Query("SELECT new ru.practicum.shareit.request.ItemRequestFeedRow(r.id, r.description, r.created, " +
+            "u.id, u.name, u.email) " +
+            "FROM ItemRequest r JOIN r.requestor u " +
+            "WHERE u.id <> ?1 " +
+            "AND (r.created < ?2 OR (r.created = ?2 AND r.id < ?3)) " +
+            "ORDER BY r.created DESC, r.id DESC")
+    List<ItemRequestFeedRow> findPageByRequestorIdNot(Long requestorId, LocalDateTime beforeCreated, Long beforeId, Limit limit);
+
+    @Query("SELECT r.id AS id, r.requestor.id AS requestorId, r.description AS description " +
+            "FROM ItemRequest r " +
+            "WHERE r.id > ?1 AND NOT EXISTS (SELECT i.id FROM Item i WHERE i.request.id = r.id) " +
+            "ORDER BY r.id")
+    List<OpenItemRequest> findOpenByIdGreaterThan(Long afterId, Limit limit);
+
+    @Query("SELECT r.version FROM ItemRequest r WHERE r.id = ?1")
+    Optional<Long> findVersionById(Long itemRequestId);
+
+    @Modifying
+    @Query("UPDATE ItemRequest r SET r.version = r.version + 1 WHERE r.id = ?1")
+    void incrementVersion(Long itemRequestId);
+
+    @Modifying
+    @Query("UPDATE ItemRequest r SET r.version = r.version + 1 WHERE r.requestor.id = ?1")
+    void incrementVersionsByRequestorId(Long requestorId);
+
+    /**
+     * Запросы, на которые откликнулись предметы владельца: в ответе показан его email.
+     */
+    @Modifying
+    @Query("UPDATE ItemRequest r SET r.version = r.version + 1 " +
+            "WHERE r.id IN (SELECT i.request.id FROM Item i WHERE i.owner.id = ?1)")
+    void incrementVersionsAnsweredByOwnerId(Long ownerId);
 }
@@ -0,0 +1,9 @@
+package ru.practicum.shareit.request;
+
+public interface OpenItemRequest {
+    Long getId();
+
+    Long getRequestorId();
+
+    String getDescription();
+}
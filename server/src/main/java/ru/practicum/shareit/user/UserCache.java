@@ -0,0 +1,61 @@
+package ru.practicum.shareit.user;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.util.TransactionHooks;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Кэш пользователей по ID для checkUser. Отсутствующие пользователи тоже кэшируются,
+ * но с коротким временем жизни, чтобы повторные запросы с неверным заголовком не шли в базу.
+ */
+@Component
+public class UserCache {
+    private final Cache<Long, Optional<User>> cache;
+
+    public UserCache(@Value("${shareit.cache.users.maximum-size}") long maximumSize,
+                     @Value("${shareit.cache.users.expire-after-write}") Duration expireAfterWrite,
+                     @Value("${shareit.cache.users.negative-expire-after-write}") Duration negativeExpireAfterWrite,
+                     MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<Long, Optional<User>>() {
+                    @Override
+                    public long expireAfterCreate(Long userId, Optional<User> user, long currentTime) {
+                        return (user.isPresent() ? expireAfterWrite : negativeExpireAfterWrite).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Long userId, Optional<User> user,
+                                                  long currentTime, long currentDuration) {
+                        return expireAfterCreate(userId, user, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(Long userId, Optional<User> user,
+                                                long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "users");
+    }
+
+    public Optional<User> get(Long userId, Function<Long, Optional<User>> loader) {
+        return cache.get(userId, loader);
+    }
+
+    public void invalidate(Long userId) {
+        cache.invalidate(userId);
+        TransactionHooks.afterCommit(() -> cache.invalidate(userId));
+    }
+}
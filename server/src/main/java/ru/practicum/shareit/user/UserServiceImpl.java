@@ -4,10 +4,16 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.BookingStorage;
 import ru.practicum.shareit.exception.ConflictEmailException;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.ItemDtoCache;
+import ru.practicum.shareit.item.ItemStorage;
+import ru.practicum.shareit.request.ItemRequestStorage;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -16,6 +22,11 @@ import java.util.stream.Collectors;
 @Transactional(readOnly = true)
 public class UserServiceImpl implements UserService {
     private final UserStorage userRepository;
+    private final UserCache userCache;
+    private final ItemStorage itemRepository;
+    private final ItemDtoCache itemDtoCache;
+    private final BookingStorage bookingRepository;
+    private final ItemRequestStorage itemRequestRepository;
 
     @Transactional
     @Override
@@ -23,6 +34,7 @@ public class UserServiceImpl implements UserService {
         checkUserEmail(newUserRequest.getEmail());
         User user = UserMapper.mapToUser(newUserRequest);
         user = userRepository.save(user);
+        userCache.invalidate(user.getId());
         log.info("Пользователь {} зарегистрирован с ID: {}", newUserRequest.getEmail(), user.getId());
         return UserMapper.mapToUserDto(user);
     }
@@ -43,13 +55,19 @@ public class UserServiceImpl implements UserService {
     @Transactional
     @Override
     public UserDto update(Long userId, UpdateUserRequest updateUserRequest) {
-        User userToUpdate = checkUser(userId);
+        User userToUpdate = findUser(userId);
         if (!userToUpdate.getEmail().equals(updateUserRequest.getEmail())) {
             checkUserEmail(updateUserRequest.getEmail());
         }
+        String oldName = userToUpdate.getName();
+        String oldEmail = userToUpdate.getEmail();
         updateUserRequest.setId(userId);
         User updatedUser = UserMapper.updateUserFields(userToUpdate, updateUserRequest);
         updatedUser = userRepository.save(updatedUser);
+        userCache.invalidate(userId);
+        if (!Objects.equals(oldName, updatedUser.getName()) || !Objects.equals(oldEmail, updatedUser.getEmail())) {
+            refreshUserCopies(userId);
+        }
         log.info("Пользователь обновлен с ID: {}", userId);
         return UserMapper.mapToUserDto(updatedUser);
     }
@@ -57,19 +75,46 @@ public class UserServiceImpl implements UserService {
     @Transactional
     @Override
     public void delete(Long userId) {
-        User userToDelete = checkUser(userId);
+        User userToDelete = findUser(userId);
         String email = userToDelete.getEmail();
+        refreshUserCopies(userId);
         userRepository.deleteById(userId);
+        userCache.invalidate(userId);
         log.info("Пользователь {} с ID: {} удален", email, userId);
     }
 
     public User checkUser(Long userId) {
+        return userCache.get(userId, userRepository::findById).orElseThrow(() -> {
+            log.error("Пользователь не найден с ID: {}", userId);
+            return new NotFoundException("Пользователь не найден с ID: " + userId);
+        });
+    }
+
+    private User findUser(Long userId) {
         return userRepository.findById(userId).orElseThrow(() -> {
             log.error("Пользователь не найден с ID: {}", userId);
             return new NotFoundException("Пользователь не найден с ID: " + userId);
         });
     }
 
+    /**
+     * Имя и email пользователя входят в карточки предметов (владелец, автор запроса, авторы отзывов),
+     * в бронирования (арендатор) и в запросы (автор запроса, владельцы откликнувшихся предметов):
+     * версии всех таких строк увеличиваются, чтобы сменились их ETag, а карточки сбрасываются из кэша.
+     */
+    private void refreshUserCopies(Long userId) {
+        bookingRepository.incrementVersionsByBookerId(userId);
+        itemRequestRepository.incrementVersionsByRequestorId(userId);
+        itemRequestRepository.incrementVersionsAnsweredByOwnerId(userId);
+        List<Long> itemIds = itemRepository.findIdsShowingUser(userId);
+        if (itemIds.isEmpty()) {
+            return;
+        }
+        itemRepository.incrementVersions(itemIds);
+        itemIds.forEach(itemDtoCache::invalidate);
+        log.debug("Сброшены карточки {} предметов пользователя с ID: {}", itemIds.size(), userId);
+    }
+
     private void checkUserEmail(String userEmail) {
         if (userRepository.findByEmail(userEmail).isPresent()) {
             log.error("Пользователь с указанным email уже зарегистрирован: {}", userEmail);
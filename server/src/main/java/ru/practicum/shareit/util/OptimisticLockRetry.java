@@ -0,0 +1,82 @@
+package ru.practicum.shareit.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.exception.InternalServerException;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Повторяет транзакционное действие при конфликте версий (@Version) ограниченное число раз
+ * с небольшой случайной паузой. Вызывается вне транзакции, чтобы каждая попытка шла в новой.
+ * Конфликты считаются в shareit.optimistic-lock.conflicts с тегами endpoint и outcome (retried/rejected).
+ */
+@Component
+@Slf4j
+public class OptimisticLockRetry {
+    private final int maxAttempts;
+    private final Duration backoff;
+    private final MeterRegistry meterRegistry;
+
+    public OptimisticLockRetry(@Value("${shareit.optimistic-retry.max-attempts}") int maxAttempts,
+                               @Value("${shareit.optimistic-retry.backoff}") Duration backoff,
+                               MeterRegistry meterRegistry) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoff = backoff;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public <T> T execute(String endpoint, Supplier<T> action) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return action.get();
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return action.get();
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= maxAttempts) {
+                    conflicts(endpoint, "rejected").increment();
+                    log.error("Конфликт версий на {} после {} попыток: {}", endpoint, attempt, e.getMessage());
+                    throw e;
+                }
+                conflicts(endpoint, "retried").increment();
+                log.warn("Конфликт версий на {}, попытка {} из {}", endpoint, attempt, maxAttempts);
+                pause(endpoint, attempt);
+            }
+        }
+    }
+
+    public void execute(String endpoint, Runnable action) {
+        execute(endpoint, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    private Counter conflicts(String endpoint, String outcome) {
+        return Counter.builder("shareit.optimistic-lock.conflicts")
+                .tag("endpoint", endpoint)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private void pause(String endpoint, int attempt) {
+        long maxMillis = backoff.toMillis() * attempt;
+        if (maxMillis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(maxMillis / 2, maxMillis + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InternalServerException("Повтор после конфликта версий на " + endpoint + " прерван");
+        }
+    }
+}
@@ -0,0 +1,53 @@
+CREATE TABLE IF NOT EXISTS users (
+    id    BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name  VARCHAR(255) NOT NULL,
+    email VARCHAR(255) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS item_requests (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    description  VARCHAR(255) NOT NULL,
+    requestor_id BIGINT       NOT NULL REFERENCES users (id),
+    created      TIMESTAMP    NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS items (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name         VARCHAR(255) NOT NULL,
+    description  VARCHAR(255) NOT NULL,
+    is_available BOOLEAN      NOT NULL,
+    owner_id     BIGINT       NOT NULL REFERENCES users (id),
+    request_id   BIGINT REFERENCES item_requests (id)
+);
+
+CREATE TABLE IF NOT EXISTS bookings (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    start_date TIMESTAMP    NOT NULL,
+    end_date   TIMESTAMP    NOT NULL,
+    item_id    BIGINT       NOT NULL REFERENCES items (id),
+    booker_id  BIGINT       NOT NULL REFERENCES users (id),
+    status     VARCHAR(255) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS comments (
+    id        BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    text      VARCHAR(255) NOT NULL,
+    item_id   BIGINT       NOT NULL REFERENCES items (id),
+    author_id BIGINT       NOT NULL REFERENCES users (id),
+    created   TIMESTAMP    NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS item_booking_summary (
+    item_id          BIGINT PRIMARY KEY,
+    last_booking_id  BIGINT,
+    last_start_date  TIMESTAMP,
+    last_end_date    TIMESTAMP,
+    last_booker_id   BIGINT,
+    last_status      VARCHAR(255),
+    next_booking_id  BIGINT,
+    next_start_date  TIMESTAMP,
+    next_end_date    TIMESTAMP,
+    next_booker_id   BIGINT,
+    next_status      VARCHAR(255),
+    stale_at         TIMESTAMP
+);
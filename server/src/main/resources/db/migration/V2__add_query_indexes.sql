@@ -0,0 +1,29 @@
+-- UserStorage.findByEmail
+CREATE INDEX IF NOT EXISTS idx_users_email ON users (email);
+
+-- ItemStorage.findAllByOwnerId, owner booking listings join bookings -> items by owner
+CREATE INDEX IF NOT EXISTS idx_items_owner_id ON items (owner_id);
+-- ItemStorage.findAllByRequestId, findByRequestIdIn
+CREATE INDEX IF NOT EXISTS idx_items_request_id ON items (request_id);
+
+-- BookingStorage.findPageByBookerId*, ordered by (start_date, id)
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_start ON bookings (booker_id, start_date, id);
+-- BookingStorage.findPageByBookerIdAndStatus
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_status_start ON bookings (booker_id, status, start_date, id);
+-- BookingStorage.existsByBookerIdAndItemIdAndEndBefore
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_item_end ON bookings (booker_id, item_id, end_date);
+-- BookingStorage.findPageByItemOwnerId*, findNextBookings, findFirstByItemOwnerIdAndStartAfterOrderByStart
+CREATE INDEX IF NOT EXISTS idx_bookings_item_start ON bookings (item_id, start_date, id);
+-- BookingStorage.findPrevBookings, findFirstByItemOwnerIdAndEndBeforeOrderByEndDesc, earliest active end per item
+CREATE INDEX IF NOT EXISTS idx_bookings_item_end ON bookings (item_id, end_date, id);
+-- BookingStorage.findByStatusInAndEndAfter
+CREATE INDEX IF NOT EXISTS idx_bookings_status_end ON bookings (status, end_date);
+
+-- CommentStorage.findByItemId, findByItemIdIn
+CREATE INDEX IF NOT EXISTS idx_comments_item_created ON comments (item_id, created);
+
+-- ItemRequestStorage.findAllByRequestorIdOrderByCreatedDesc
+CREATE INDEX IF NOT EXISTS idx_item_requests_requestor_created ON item_requests (requestor_id, created DESC);
+
+-- ItemBookingSummaryStorage.findStaleItemIds
+CREATE INDEX IF NOT EXISTS idx_item_booking_summary_stale_at ON item_booking_summary (stale_at);
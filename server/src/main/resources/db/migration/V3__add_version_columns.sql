@@ -0,0 +1,5 @@
+ALTER TABLE items ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE bookings ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE item_requests ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,2 @@
+-- ItemRequestStorage.findPageByRequestorIdNot, keyset feed ordered by (created DESC, id DESC)
+CREATE INDEX IF NOT EXISTS idx_item_requests_created_id ON item_requests (created DESC, id DESC);
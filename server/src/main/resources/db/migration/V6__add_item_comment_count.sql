@@ -0,0 +1,7 @@
+-- Item.commentCount, maintained by ItemStorage.incrementCommentCount instead of COUNT(*) per item
+ALTER TABLE items ADD COLUMN comment_count BIGINT NOT NULL DEFAULT 0;
+UPDATE items SET comment_count = (SELECT COUNT(*) FROM comments c WHERE c.item_id = items.id);
+
+-- CommentStorage.findPageByItemId, findByItemIdIn, newest first by (created DESC, id DESC)
+CREATE INDEX IF NOT EXISTS idx_comments_item_created_id ON comments (item_id, created DESC, id DESC);
+DROP INDEX IF EXISTS idx_comments_item_created;
@@ -0,0 +1,2 @@
+-- ItemStorage.findIdsShowingUser, items commented by the user
+CREATE INDEX IF NOT EXISTS idx_comments_author_item ON comments (author_id, item_id);
@@ -0,0 +1,200 @@
+package ru.practicum.shareit;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.BookingStorage;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.ItemStorage;
+import ru.practicum.shareit.pagination.Cursor;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.ItemRequestMapper;
+import ru.practicum.shareit.request.ItemRequestStorage;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.UserMapper;
+import ru.practicum.shareit.user.UserStorage;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Сравнение выделения памяти на запрос для списков бронирований владельца, предметов владельца,
+ * чужих запросов и ответов на запросы: загрузка сущностей с графами *.forMapping
+ * против проекций BookingRow/ItemRow/ItemRequestRow/RequestItemRow.
+ * Печатает среднее число выделенных байт и время на запрос для каждого варианта.
+ * Запуск: mvn -pl server test -Dtest=ReadAllocationBenchmarkTest -Dshareit.benchmark=true
+ */
+@EnabledIfSystemProperty(named = "shareit.benchmark", matches = "true")
+@SpringBootTest(properties = {
+        "logging.level.org.springframework.transaction.interceptor=INFO",
+        "logging.level.org.springframework.orm.jpa.JpaTransactionManager=INFO"
+})
+class ReadAllocationBenchmarkTest {
+    private static final int ROWS = 100;
+    private static final int WARM_UP = 300;
+    private static final int ITERATIONS = 1_000;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserStorage userRepository;
+
+    @Autowired
+    private ItemStorage itemRepository;
+
+    @Autowired
+    private ItemRequestStorage itemRequestRepository;
+
+    @Autowired
+    private BookingStorage bookingRepository;
+
+    @Autowired
+    private ItemService itemService;
+
+    private TransactionTemplate readOnly;
+    private User owner;
+    private UserDto ownerDto;
+
+    @BeforeEach
+    void beforeEach() {
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        owner = userRepository.save(new User(null, "owner", "owner@example.com"));
+        ownerDto = UserMapper.mapToUserDto(owner);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < ROWS; i++) {
+            User requestor = userRepository.save(new User(null, "requestor" + i, "requestor" + i + "@example.com"));
+            ItemRequest request = itemRequestRepository.save(new ItemRequest(null, "нужна вещь " + i, requestor, now));
+            Item item = itemRepository.save(new Item(null, "item" + i, "description " + i, true, owner, request));
+            bookingRepository.save(new Booking(null, now.plusDays(i), now.plusDays(i + 1), item, requestor,
+                    BookingStatus.WAITING));
+        }
+    }
+
+    @AfterEach
+    void afterEach() {
+        for (String table : List.of("comments", "item_booking_summary", "bookings", "items", "item_requests", "users")) {
+            jdbcTemplate.update("DELETE FROM " + table);
+        }
+    }
+
+    @Test
+    void ownerBookings_whenEntitiesVersusProjection_thenReportsAllocation() {
+        String entities = "SELECT b FROM Booking b WHERE b.item.owner.id = :ownerId " +
+                "AND (b.start > :afterStart OR (b.start = :afterStart AND b.id > :afterId)) ORDER BY b.start, b.id";
+        compare("bookings/owner", () -> entityManager.createQuery(entities, Booking.class)
+                        .setHint("jakarta.persistence.fetchgraph", entityManager.getEntityGraph("Booking.forMapping"))
+                        .setParameter("ownerId", owner.getId())
+                        .setParameter("afterStart", Cursor.FIRST.getTime())
+                        .setParameter("afterId", Cursor.FIRST.getId())
+                        .setMaxResults(ROWS)
+                        .getResultList().stream()
+                        .map(booking -> BookingMapper.mapToBookingDto(booking,
+                                ItemMapper.mapToShortDto(booking.getItem()),
+                                UserMapper.mapToUserDto(booking.getBooker())))
+                        .toList(),
+                () -> bookingRepository.findPageByItemOwnerId(owner.getId(), Cursor.FIRST.getTime(),
+                                Cursor.FIRST.getId(), Limit.of(ROWS)).stream()
+                        .map(BookingMapper::mapToBookingDto)
+                        .toList());
+    }
+
+    @Test
+    void ownerItems_whenEntitiesVersusProjection_thenReportsAllocation() {
+        compare("items", () -> entityManager.createQuery("SELECT i FROM Item i WHERE i.owner.id = :ownerId", Item.class)
+                        .setHint("jakarta.persistence.fetchgraph", entityManager.getEntityGraph("Item.forMapping"))
+                        .setParameter("ownerId", owner.getId())
+                        .getResultList().stream()
+                        .map(item -> ItemMapper.mapToItemDto(item, List.of()))
+                        .toList(),
+                () -> itemRepository.findAllByOwnerId(owner.getId()).stream()
+                        .map(row -> ItemMapper.mapToItemDto(row, List.of(), null, null))
+                        .toList());
+    }
+
+    @Test
+    void otherRequests_whenEntitiesVersusProjection_thenReportsAllocation() {
+        String entities = "SELECT r FROM ItemRequest r WHERE r.requestor.id <> :requestorId ORDER BY r.created DESC, r.id DESC";
+        compare("requests/all", () -> entityManager.createQuery(entities, ItemRequest.class)
+                        .setHint("jakarta.persistence.fetchgraph", entityManager.getEntityGraph("ItemRequest.forMapping"))
+                        .setParameter("requestorId", owner.getId())
+                        .setMaxResults(ROWS)
+                        .getResultList().stream()
+                        .map(request -> ItemRequestMapper.mapToItemRequestDto(request, ownerDto, List.of()))
+                        .toList(),
+                () -> itemRequestRepository.findPageByRequestorIdNot(owner.getId(), Cursor.LAST.getTime(),
+                                Cursor.LAST.getId(), Limit.of(ROWS)).stream()
+                        .map(row -> ItemRequestMapper.mapToItemRequestDto(row, List.of()))
+                        .toList());
+    }
+
+    @Test
+    void requestItems_whenEntitiesVersusProjection_thenReportsAllocation() {
+        List<Long> requestIds = jdbcTemplate.queryForList("SELECT id FROM item_requests", Long.class);
+        compare("requests/items", () -> List.copyOf(entityManager
+                        .createQuery("SELECT i FROM Item i WHERE i.request.id IN :requestIds", Item.class)
+                        .setHint("jakarta.persistence.fetchgraph", entityManager.getEntityGraph("Item.forMapping"))
+                        .setParameter("requestIds", requestIds)
+                        .getResultList().stream()
+                        .collect(Collectors.groupingBy(item -> item.getRequest().getId(),
+                                Collectors.mapping(ItemMapper::mapToShortDto, Collectors.toList())))
+                        .entrySet()),
+                () -> List.copyOf(itemService.findAllItemsByRequestIds(requestIds).entrySet()));
+    }
+
+    private void compare(String endpoint, Supplier<List<?>> entities, Supplier<List<?>> projection) {
+        Measurement before = measure(entities);
+        Measurement after = measure(projection);
+        System.out.printf("%s rows=%d entities: %d B/req %.3f ms/req, projection: %d B/req %.3f ms/req (%.1fx less memory)%n",
+                endpoint, ROWS,
+                before.bytes(), before.millis(),
+                after.bytes(), after.millis(),
+                (double) before.bytes() / after.bytes());
+        assertEquals(before.rows(), after.rows());
+    }
+
+    private Measurement measure(Supplier<List<?>> request) {
+        int rows = 0;
+        for (int i = 0; i < WARM_UP; i++) {
+            rows = readOnly.execute(status -> request.get()).size();
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long bytesBefore = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            readOnly.execute(status -> request.get());
+        }
+        long elapsed = System.nanoTime() - start;
+        long bytes = threads.getCurrentThreadAllocatedBytes() - bytesBefore;
+        return new Measurement(rows, bytes / ITERATIONS, elapsed / 1e6 / ITERATIONS);
+    }
+
+    private record Measurement(int rows, long bytes, double millis) {
+    }
+}
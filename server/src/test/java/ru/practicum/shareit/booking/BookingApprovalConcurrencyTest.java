@@ -0,0 +1,141 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemStorage;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserStorage;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Одновременные подтверждения одного бронирования через BookingController: с включенным open-in-view
+ * повтор после конфликта версий идет в том же EntityManager запроса и должен видеть свежий статус.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class BookingApprovalConcurrencyTest {
+    private static final int ROUNDS = 10;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @SpyBean
+    private BookingService bookingService;
+
+    @Autowired
+    private UserStorage userRepository;
+
+    @Autowired
+    private ItemStorage itemRepository;
+
+    @Autowired
+    private BookingStorage bookingRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User owner;
+    private User booker;
+    private Item item;
+    private final List<Long> bookingIds = new ArrayList<>();
+
+    @BeforeEach
+    void beforeEach() {
+        owner = userRepository.save(new User(null, "owner", "race-owner@example.com"));
+        booker = userRepository.save(new User(null, "booker", "race-booker@example.com"));
+        item = itemRepository.save(new Item(null, "Дрель", "Ударная", true, owner, null));
+    }
+
+    @AfterEach
+    void afterEach() {
+        bookingIds.forEach(id -> jdbcTemplate.update("DELETE FROM bookings WHERE id = ?", id));
+        jdbcTemplate.update("DELETE FROM item_booking_summary WHERE item_id = ?", item.getId());
+        jdbcTemplate.update("DELETE FROM items WHERE id = ?", item.getId());
+        jdbcTemplate.update("DELETE FROM users WHERE id IN (?, ?)", owner.getId(), booker.getId());
+    }
+
+    @Test
+    void approve_whenOwnerApprovesAndRejectsConcurrently_thenExactlyOneDecisionWins() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                Long bookingId = newBooking(round);
+                CountDownLatch start = new CountDownLatch(1);
+                Future<MvcResult> approve = executor.submit(() -> decide(start, bookingId, true));
+                Future<MvcResult> reject = executor.submit(() -> decide(start, bookingId, false));
+                start.countDown();
+                MvcResult approveResult = approve.get(10, TimeUnit.SECONDS);
+                MvcResult rejectResult = reject.get(10, TimeUnit.SECONDS);
+
+                int approveStatus = approveResult.getResponse().getStatus();
+                int rejectStatus = rejectResult.getResponse().getStatus();
+                assertEquals(1, (approveStatus == 200 ? 1 : 0) + (rejectStatus == 200 ? 1 : 0),
+                        "раунд " + round + ": " + approveStatus + " и " + rejectStatus);
+                MvcResult loser = approveStatus == 200 ? rejectResult : approveResult;
+                assertTrue(Set.of(400, 409).contains(loser.getResponse().getStatus()),
+                        loser.getResponse().getContentAsString());
+                BookingStatus expected = approveStatus == 200 ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+                assertEquals(expected, bookingRepository.findById(bookingId).orElseThrow().getStatus());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void approve_whenConflictOutlivesRetries_thenRespondsConflict() throws Exception {
+        Long bookingId = newBooking(0);
+        Mockito.doThrow(new ObjectOptimisticLockingFailureException(Booking.class, bookingId))
+                .when(bookingService).approveBooking(owner.getId(), bookingId, true);
+
+        mockMvc.perform(patch("/bookings/{bookingId}", bookingId)
+                        .header("X-Sharer-User-Id", owner.getId())
+                        .param("approved", "true"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").value("Объект был изменён параллельным запросом, повторите запрос"));
+
+        Mockito.verify(bookingService, Mockito.times(3)).approveBooking(owner.getId(), bookingId, true);
+        assertEquals(BookingStatus.WAITING, bookingRepository.findById(bookingId).orElseThrow().getStatus());
+    }
+
+    private Long newBooking(int round) {
+        LocalDateTime start = LocalDateTime.now().plusDays(1 + round);
+        Long bookingId = bookingService.save(booker.getId(),
+                new NewBookingRequest(item.getId(), start, start.plusHours(1))).getId();
+        bookingIds.add(bookingId);
+        return bookingId;
+    }
+
+    private MvcResult decide(CountDownLatch start, Long bookingId, boolean approved) throws Exception {
+        start.await();
+        return mockMvc.perform(patch("/bookings/{bookingId}", bookingId)
+                        .header("X-Sharer-User-Id", owner.getId())
+                        .param("approved", String.valueOf(approved)))
+                .andReturn();
+    }
+}
@@ -0,0 +1,128 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.user.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookingIntervalIndexTest {
+    @Mock
+    private BookingStorage bookingRepository;
+
+    @InjectMocks
+    private BookingIntervalIndex bookingIntervalIndex;
+
+    private LocalDateTime now;
+
+    @BeforeEach
+    void beforeEach() {
+        now = LocalDateTime.now();
+    }
+
+    @Test
+    void tryReserve_whenIntervalsDoNotOverlap_thenReservesAll() {
+        assertTrue(bookingIntervalIndex.tryReserve(1L, now.plusHours(1), now.plusHours(2)));
+        assertTrue(bookingIntervalIndex.tryReserve(1L, now.plusHours(2), now.plusHours(3)));
+        assertTrue(bookingIntervalIndex.tryReserve(1L, now.plusMinutes(30), now.plusHours(1)));
+        assertTrue(bookingIntervalIndex.tryReserve(2L, now.plusHours(1), now.plusHours(2)));
+    }
+
+    @Test
+    void tryReserve_whenIntervalOverlaps_thenReturnsFalse() {
+        assertTrue(bookingIntervalIndex.tryReserve(1L, now.plusHours(2), now.plusHours(4)));
+
+        assertFalse(bookingIntervalIndex.tryReserve(1L, now.plusHours(1), now.plusHours(3)));
+        assertFalse(bookingIntervalIndex.tryReserve(1L, now.plusHours(3), now.plusHours(5)));
+        assertFalse(bookingIntervalIndex.tryReserve(1L, now.plusHours(1), now.plusHours(5)));
+        assertFalse(bookingIntervalIndex.tryReserve(1L, now.plusHours(2), now.plusHours(3)));
+    }
+
+    @Test
+    void release_whenBookingRejected_thenIntervalBecomesFree() {
+        Item item = new Item(1L, "item", "desc", true, new User(), null);
+        Booking booking = new Booking(1L, now.plusHours(1), now.plusHours(3), item, new User(), BookingStatus.REJECTED);
+        assertTrue(bookingIntervalIndex.tryReserve(1L, booking.getStart(), booking.getEnd()));
+
+        bookingIntervalIndex.release(booking);
+
+        assertTrue(bookingIntervalIndex.tryReserve(1L, now.plusHours(2), now.plusHours(4)));
+    }
+
+    @Test
+    void warmUp_whenActiveBookingsStored_thenRejectsOverlaps() {
+        Item item = new Item(7L, "item", "desc", true, new User(), null);
+        Booking booking = new Booking(1L, now.plusHours(1), now.plusHours(3), item, new User(), BookingStatus.APPROVED);
+        Mockito.when(bookingRepository.findByStatusInAndEndAfter(Mockito.eq(BookingIntervalIndex.ACTIVE_STATUSES),
+                Mockito.any())).thenReturn(List.of(booking));
+
+        bookingIntervalIndex.warmUp();
+
+        assertFalse(bookingIntervalIndex.tryReserve(7L, now.plusHours(2), now.plusHours(4)));
+        assertTrue(bookingIntervalIndex.tryReserve(7L, now.plusHours(3), now.plusHours(4)));
+    }
+
+    @Test
+    void release_whenStoredBookingsShareStart_thenFreesOnlyOwnInterval() {
+        Item item = new Item(7L, "item", "desc", true, new User(), null);
+        Booking shorter = new Booking(1L, now.plusHours(1), now.plusHours(3), item, new User(), BookingStatus.WAITING);
+        Booking longer = new Booking(2L, now.plusHours(1), now.plusHours(5), item, new User(), BookingStatus.WAITING);
+        Mockito.when(bookingRepository.findByStatusInAndEndAfter(Mockito.eq(BookingIntervalIndex.ACTIVE_STATUSES),
+                Mockito.any())).thenReturn(List.of(shorter, longer));
+        bookingIntervalIndex.warmUp();
+
+        bookingIntervalIndex.release(longer);
+
+        assertTrue(bookingIntervalIndex.tryReserve(7L, now.plusHours(3), now.plusHours(4)));
+        assertFalse(bookingIntervalIndex.tryReserve(7L, now.plusHours(2), now.plusHours(3)));
+
+        bookingIntervalIndex.release(shorter);
+
+        assertTrue(bookingIntervalIndex.tryReserve(7L, now.plusHours(1), now.plusHours(2)));
+    }
+
+    @Test
+    void warmUp_whenStoredBookingsAreNested_thenRejectsOverlapWithOuterInterval() {
+        Item item = new Item(7L, "item", "desc", true, new User(), null);
+        Booking outer = new Booking(1L, now.plusHours(1), now.plusHours(10), item, new User(), BookingStatus.APPROVED);
+        Booking inner = new Booking(2L, now.plusHours(2), now.plusHours(3), item, new User(), BookingStatus.WAITING);
+        Mockito.when(bookingRepository.findByStatusInAndEndAfter(Mockito.eq(BookingIntervalIndex.ACTIVE_STATUSES),
+                Mockito.any())).thenReturn(List.of(outer, inner));
+        bookingIntervalIndex.warmUp();
+
+        assertFalse(bookingIntervalIndex.tryReserve(7L, now.plusHours(5), now.plusHours(6)));
+        assertFalse(bookingIntervalIndex.tryReserve(7L, now.plusHours(9), now.plusHours(11)));
+
+        bookingIntervalIndex.release(outer);
+
+        assertTrue(bookingIntervalIndex.tryReserve(7L, now.plusHours(5), now.plusHours(6)));
+        assertFalse(bookingIntervalIndex.tryReserve(7L, now.plusHours(2), now.plusHours(4)));
+        assertTrue(bookingIntervalIndex.tryReserve(7L, now.plusHours(3), now.plusHours(4)));
+    }
+
+    @Test
+    void tryReserve_whenStoredIntervalEndedInsideLongerOne_thenPrunesOnlyEndedSegments() {
+        Item item = new Item(7L, "item", "desc", true, new User(), null);
+        Booking ongoing = new Booking(1L, now.minusHours(2), now.plusHours(2), item, new User(), BookingStatus.APPROVED);
+        Booking ended = new Booking(2L, now.minusHours(1), now.minusMinutes(30), item, new User(),
+                BookingStatus.APPROVED);
+        Booking later = new Booking(3L, now.plusHours(4), now.plusHours(5), item, new User(), BookingStatus.APPROVED);
+        Mockito.when(bookingRepository.findByStatusInAndEndAfter(Mockito.eq(BookingIntervalIndex.ACTIVE_STATUSES),
+                Mockito.any())).thenReturn(List.of(ongoing, ended, later));
+        bookingIntervalIndex.warmUp();
+
+        assertFalse(bookingIntervalIndex.tryReserve(7L, now.plusHours(1), now.plusHours(3)));
+        assertTrue(bookingIntervalIndex.tryReserve(7L, now.plusHours(2), now.plusHours(3)));
+        assertFalse(bookingIntervalIndex.tryReserve(7L, now.plusHours(4), now.plusHours(6)));
+    }
+}
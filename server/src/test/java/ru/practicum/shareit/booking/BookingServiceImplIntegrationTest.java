@@ -4,14 +4,30 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.summary.ItemBookingSummary;
+import ru.practicum.shareit.booking.summary.ItemBookingSummaryService;
+import ru.practicum.shareit.booking.summary.ItemBookingSummaryStorage;
+import ru.practicum.shareit.exception.BookingOverlapException;
+import ru.practicum.shareit.exception.ForbiddenException;
+import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemDto;
 import ru.practicum.shareit.item.ItemStorage;
+import ru.practicum.shareit.item.ItemUtilService;
+import ru.practicum.shareit.pagination.Cursor;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserStorage;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -30,8 +46,18 @@ class BookingServiceImplIntegrationTest {
     @Autowired
     private BookingStorage bookingRepository;
 
+    @Autowired
+    private ItemBookingSummaryService itemBookingSummaryService;
+
+    @Autowired
+    private ItemBookingSummaryStorage itemBookingSummaryRepository;
+
+    @Autowired
+    private ItemUtilService itemUtilService;
+
     @BeforeEach
     void beforeEach() {
+        itemBookingSummaryRepository.deleteAll();
         bookingRepository.deleteAll();
         itemRepository.deleteAll();
         userRepository.deleteAll();
@@ -54,6 +80,62 @@ class BookingServiceImplIntegrationTest {
         assertEquals(BookingStatus.WAITING, found.getStatus());
     }
 
+    @Test
+    void save_whenIntervalOverlapsActiveBooking_thenThrowsBookingOverlapException() {
+        User owner = userRepository.save(new User(null, "owner", "owner@example.com"));
+        User booker = userRepository.save(new User(null, "booker", "booker@example.com"));
+        Item item = itemRepository.save(new Item(null, "item", "desc", true, owner, null));
+
+        LocalDateTime now = LocalDateTime.now();
+        bookingService.save(booker.getId(), new NewBookingRequest(item.getId(), now.plusHours(1), now.plusHours(3)));
+
+        assertThrows(BookingOverlapException.class, () -> bookingService.save(booker.getId(),
+                new NewBookingRequest(item.getId(), now.plusHours(2), now.plusHours(4))));
+        assertDoesNotThrow(() -> bookingService.save(booker.getId(),
+                new NewBookingRequest(item.getId(), now.plusHours(3), now.plusHours(4))));
+    }
+
+    @Test
+    void saveAll_whenBatchHasInvalidElements_thenSavesValidOnesAndReportsEachResult() {
+        User owner = userRepository.save(new User(null, "owner", "owner@example.com"));
+        User booker = userRepository.save(new User(null, "booker", "booker@example.com"));
+        Item item1 = itemRepository.save(new Item(null, "item1", "desc", true, owner, null));
+        Item item2 = itemRepository.save(new Item(null, "item2", "desc", true, owner, null));
+        Item unavailable = itemRepository.save(new Item(null, "item3", "desc", false, owner, null));
+
+        LocalDateTime now = LocalDateTime.now();
+        List<BookingBatchResult> results = bookingService.saveAll(booker.getId(), List.of(
+                new NewBookingRequest(item1.getId(), now.plusHours(1), now.plusHours(3)),
+                new NewBookingRequest(item2.getId(), now.plusHours(1), now.plusHours(3)),
+                new NewBookingRequest(item1.getId(), now.plusHours(2), now.plusHours(4)),
+                new NewBookingRequest(999L, now.plusHours(1), now.plusHours(3)),
+                new NewBookingRequest(unavailable.getId(), now.plusHours(1), now.plusHours(3)),
+                new NewBookingRequest(item1.getId(), now.plusHours(3), now.plusHours(4))));
+
+        assertEquals(List.of(201, 201, 409, 404, 400, 201), results.stream().map(BookingBatchResult::getStatus).toList());
+        assertEquals(List.of(0, 1, 2, 3, 4, 5), results.stream().map(BookingBatchResult::getIndex).toList());
+        assertNotNull(results.get(2).getError());
+        assertNull(results.get(2).getBooking());
+        assertEquals(item2.getId(), results.get(1).getBooking().getItem().getId());
+        assertEquals(3, bookingRepository.count());
+        assertEquals(BookingStatus.WAITING,
+                bookingRepository.findById(results.get(5).getBooking().getId()).orElseThrow().getStatus());
+        assertEquals(results.get(0).getBooking().getId(),
+                itemBookingSummaryRepository.findById(item1.getId()).orElseThrow().getNext().getBookingId());
+    }
+
+    @Test
+    void saveAll_whenBatchTooLarge_thenThrowsValidationException() {
+        User booker = userRepository.save(new User(null, "booker", "booker@example.com"));
+        List<NewBookingRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 101; i++) {
+            requests.add(new NewBookingRequest(1L, LocalDateTime.now().plusDays(i), LocalDateTime.now().plusDays(i + 1)));
+        }
+
+        assertThrows(ValidationException.class, () -> bookingService.saveAll(booker.getId(), requests));
+        assertThrows(ValidationException.class, () -> bookingService.saveAll(booker.getId(), List.of()));
+    }
+
     @Test
     void approve_whenValidBooking_thenChangesStatusToApproved() {
         User owner = userRepository.save(new User(null, "owner", "owner@example.com"));
@@ -69,6 +151,72 @@ class BookingServiceImplIntegrationTest {
         assertEquals(BookingStatus.APPROVED, approved.getStatus());
     }
 
+    @Test
+    void approveBookings_whenBatchHasInvalidDecisions_thenUpdatesValidOnesAndReportsEachResult() {
+        User owner = userRepository.save(new User(null, "owner", "owner@example.com"));
+        User other = userRepository.save(new User(null, "other", "other@example.com"));
+        User booker = userRepository.save(new User(null, "booker", "booker@example.com"));
+        Item item = itemRepository.save(new Item(null, "item", "desc", true, owner, null));
+        Item foreign = itemRepository.save(new Item(null, "foreign", "desc", true, other, null));
+
+        LocalDateTime now = LocalDateTime.now();
+        Long toApprove = bookingService.save(booker.getId(),
+                new NewBookingRequest(item.getId(), now.plusHours(1), now.plusHours(2))).getId();
+        Long toReject = bookingService.save(booker.getId(),
+                new NewBookingRequest(item.getId(), now.plusHours(3), now.plusHours(4))).getId();
+        Long alreadyApproved = bookingService.save(booker.getId(),
+                new NewBookingRequest(item.getId(), now.plusHours(5), now.plusHours(6))).getId();
+        bookingService.approveBooking(owner.getId(), alreadyApproved, true);
+        Long foreignBooking = bookingService.save(booker.getId(),
+                new NewBookingRequest(foreign.getId(), now.plusHours(1), now.plusHours(2))).getId();
+        Long versionBefore = bookingRepository.findById(toApprove).orElseThrow().getVersion();
+
+        List<BookingApprovalResult> results = bookingService.approveBookings(owner.getId(), List.of(
+                new BookingDecision(toApprove, true),
+                new BookingDecision(toReject, false),
+                new BookingDecision(alreadyApproved, false),
+                new BookingDecision(foreignBooking, true),
+                new BookingDecision(999L, true),
+                new BookingDecision(toApprove, false)));
+
+        assertEquals(List.of(200, 200, 400, 403, 404, 400),
+                results.stream().map(BookingApprovalResult::getStatus).toList());
+        assertEquals(List.of(toApprove, toReject, alreadyApproved, foreignBooking, 999L, toApprove),
+                results.stream().map(BookingApprovalResult::getBookingId).toList());
+        assertEquals(BookingStatus.APPROVED, results.get(0).getBookingStatus());
+        assertNotNull(results.get(5).getError());
+        Booking approved = bookingRepository.findById(toApprove).orElseThrow();
+        assertEquals(BookingStatus.APPROVED, approved.getStatus());
+        assertEquals(versionBefore + 1, approved.getVersion());
+        assertEquals(BookingStatus.REJECTED, bookingRepository.findById(toReject).orElseThrow().getStatus());
+        assertEquals(BookingStatus.APPROVED, bookingRepository.findById(alreadyApproved).orElseThrow().getStatus());
+        assertEquals(BookingStatus.WAITING, bookingRepository.findById(foreignBooking).orElseThrow().getStatus());
+    }
+
+    @Test
+    void findBookingETag_whenBookingOrItemChanges_thenChanges() {
+        User owner = userRepository.save(new User(null, "owner", "owner@example.com"));
+        User booker = userRepository.save(new User(null, "booker", "booker@example.com"));
+        User stranger = userRepository.save(new User(null, "stranger", "stranger@example.com"));
+        Item item = itemRepository.save(new Item(null, "item", "desc", true, owner, null));
+
+        LocalDateTime now = LocalDateTime.now();
+        BookingDto saved = bookingService.save(booker.getId(),
+                new NewBookingRequest(item.getId(), now.plusHours(1), now.plusHours(2)));
+        String created = bookingService.findBookingETag(booker.getId(), saved.getId());
+
+        bookingService.approveBooking(owner.getId(), saved.getId(), true);
+        String approved = bookingService.findBookingETag(owner.getId(), saved.getId());
+
+        item.setName("renamed");
+        itemRepository.save(item);
+        String itemRenamed = bookingService.findBookingETag(booker.getId(), saved.getId());
+
+        assertNotEquals(created, approved);
+        assertNotEquals(approved, itemRenamed);
+        assertThrows(ForbiddenException.class, () -> bookingService.findBookingETag(stranger.getId(), saved.getId()));
+    }
+
     @Test
     void findAllByBookerIdAndState_whenExists_thenReturnsBookings() {
         User owner = userRepository.save(new User(null, "owner", "owner@example.com"));
@@ -79,7 +227,7 @@ class BookingServiceImplIntegrationTest {
         NewBookingRequest request = new NewBookingRequest(item.getId(), now.plusHours(1), now.plusHours(2));
         bookingService.save(booker.getId(), request);
 
-        Collection<BookingDto> bookings = bookingService.findAllByBookerIdAndState(booker.getId(), BookingState.ALL);
+        Collection<BookingDto> bookings = bookingService.findAllByBookerIdAndState(booker.getId(), BookingState.ALL, null, 20);
 
         assertEquals(1, bookings.size());
     }
@@ -94,8 +242,200 @@ class BookingServiceImplIntegrationTest {
         NewBookingRequest request = new NewBookingRequest(item.getId(), now.plusHours(1), now.plusHours(2));
         bookingService.save(booker.getId(), request);
 
-        Collection<BookingDto> bookings = bookingService.findAllByOwnerIdAndState(owner.getId(), BookingState.ALL);
+        Collection<BookingDto> bookings = bookingService.findAllByOwnerIdAndState(owner.getId(), BookingState.ALL, null, 20);
 
         assertEquals(1, bookings.size());
     }
-}
\ No newline at end of file
+
+    @Test
+    void findAllByOwnerIdAndState_whenPagedWithCursor_thenReturnsEveryBookingOnce() {
+        User owner = userRepository.save(new User(null, "owner", "owner@example.com"));
+        User booker = userRepository.save(new User(null, "booker", "booker@example.com"));
+        Item item = itemRepository.save(new Item(null, "item", "desc", true, owner, null));
+
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        for (int i = 0; i < 5; i++) {
+            bookingService.save(booker.getId(),
+                    new NewBookingRequest(item.getId(), now.plusDays(i + 1), now.plusDays(i + 1).plusHours(1)));
+        }
+
+        List<BookingDto> firstPage = List.copyOf(
+                bookingService.findAllByOwnerIdAndState(owner.getId(), BookingState.ALL, null, 2));
+        BookingDto last = firstPage.get(firstPage.size() - 1);
+        List<BookingDto> secondPage = List.copyOf(bookingService.findAllByOwnerIdAndState(owner.getId(),
+                BookingState.ALL, new Cursor(last.getStart(), last.getId()), 2));
+        last = secondPage.get(secondPage.size() - 1);
+        List<BookingDto> thirdPage = List.copyOf(bookingService.findAllByOwnerIdAndState(owner.getId(),
+                BookingState.ALL, new Cursor(last.getStart(), last.getId()), 2));
+
+        assertEquals(2, firstPage.size());
+        assertEquals(2, secondPage.size());
+        assertEquals(1, thirdPage.size());
+        assertTrue(firstPage.get(1).getStart().isBefore(secondPage.get(0).getStart()));
+        assertTrue(secondPage.get(1).getStart().isBefore(thirdPage.get(0).getStart()));
+    }
+
+    @Test
+    void findOwnerSummary_whenOwnerHasBookings_thenCountsEveryStateAndReturnsFirstPage() {
+        User owner = userRepository.save(new User(null, "owner", "owner@example.com"));
+        User booker = userRepository.save(new User(null, "booker", "booker@example.com"));
+        Item item = itemRepository.save(new Item(null, "item", "desc", true, owner, null));
+        Item other = itemRepository.save(new Item(null, "other", "desc", true, booker, null));
+
+        LocalDateTime now = LocalDateTime.now();
+        bookingRepository.save(new Booking(null, now.minusDays(3), now.minusDays(2), item, booker, BookingStatus.APPROVED));
+        bookingRepository.save(new Booking(null, now.minusDays(1), now.plusDays(1), item, booker, BookingStatus.APPROVED));
+        bookingRepository.save(new Booking(null, now.plusDays(1), now.plusDays(2), item, booker, BookingStatus.WAITING));
+        bookingRepository.save(new Booking(null, now.plusDays(3), now.plusDays(4), item, booker, BookingStatus.REJECTED));
+        bookingRepository.save(new Booking(null, now.plusDays(1), now.plusDays(2), other, owner, BookingStatus.WAITING));
+
+        OwnerBookingSummaryDto summary = bookingService.findOwnerSummary(owner.getId(), BookingState.FUTURE, 1);
+
+        Map<BookingState, Long> expected = Map.of(BookingState.ALL, 4L, BookingState.CURRENT, 3L,
+                BookingState.PAST, 1L, BookingState.FUTURE, 2L, BookingState.WAITING, 1L, BookingState.REJECTED, 1L);
+        assertEquals(expected, summary.getCounts());
+        assertEquals(BookingState.FUTURE, summary.getState());
+        assertEquals(1, summary.getBookings().size());
+        assertEquals(BookingStatus.WAITING, summary.getBookings().iterator().next().getStatus());
+        for (BookingState state : BookingState.values()) {
+            assertEquals(summary.getCounts().get(state),
+                    (long) bookingService.findAllByOwnerIdAndState(owner.getId(), state, null, 100).size(), state.name());
+        }
+    }
+
+    @Test
+    void findOwnerSummary_whenOwnerHasNoBookings_thenReturnsZeroCounts() {
+        User owner = userRepository.save(new User(null, "owner", "owner@example.com"));
+
+        OwnerBookingSummaryDto summary = bookingService.findOwnerSummary(owner.getId(), BookingState.ALL, 20);
+
+        assertTrue(summary.getCounts().values().stream().allMatch(count -> count == 0L));
+        assertEquals(BookingState.values().length, summary.getCounts().size());
+        assertTrue(summary.getBookings().isEmpty());
+    }
+
+    @Test
+    void findAllPrevsAndNextsByItemIds_whenHistoryGrows_thenFetchesOneRowPerItem() {
+        User owner = userRepository.save(new User(null, "owner", "owner@example.com"));
+        User booker = userRepository.save(new User(null, "booker", "booker@example.com"));
+        List<Item> items = List.of(
+                itemRepository.save(new Item(null, "item1", "desc", true, owner, null)),
+                itemRepository.save(new Item(null, "item2", "desc", true, owner, null)),
+                itemRepository.save(new Item(null, "item3", "desc", true, owner, null)));
+        List<Long> itemIds = items.stream().map(Item::getId).toList();
+
+        LocalDateTime now = LocalDateTime.now();
+        int history = 0;
+        for (int targetHistory : new int[]{1, 10, 100}) {
+            List<Booking> bookings = new ArrayList<>();
+            for (; history < targetHistory; history++) {
+                for (Item item : items) {
+                    bookings.add(new Booking(null, now.minusDays(history + 2), now.minusDays(history + 1),
+                            item, booker, BookingStatus.APPROVED));
+                    bookings.add(new Booking(null, now.plusDays(history + 1), now.plusDays(history + 2),
+                            item, booker, BookingStatus.APPROVED));
+                }
+            }
+            bookingRepository.saveAll(bookings);
+
+            assertEquals(items.size(), bookingRepository.findPrevBookings(itemIds, now).size());
+            assertEquals(items.size(), bookingRepository.findNextBookings(itemIds, now).size());
+        }
+
+        Map<Long, BookingShortDto> prevs = bookingService.findAllPrevsByItemIds(itemIds);
+        Map<Long, BookingShortDto> nexts = bookingService.findAllNextsByItemIds(itemIds);
+
+        for (Long itemId : itemIds) {
+            assertTrue(prevs.get(itemId).getEnd().isAfter(now.minusDays(1).minusMinutes(1)));
+            assertTrue(nexts.get(itemId).getStart().isBefore(now.plusDays(1).plusMinutes(1)));
+        }
+    }
+
+    @Test
+    void save_whenBookingCreated_thenUpdatesItemBookingSummary() {
+        User owner = userRepository.save(new User(null, "owner", "owner@example.com"));
+        User booker = userRepository.save(new User(null, "booker", "booker@example.com"));
+        Item item = itemRepository.save(new Item(null, "item", "desc", true, owner, null));
+
+        LocalDateTime now = LocalDateTime.now();
+        BookingDto later = bookingService.save(booker.getId(),
+                new NewBookingRequest(item.getId(), now.plusDays(3), now.plusDays(4)));
+        BookingDto sooner = bookingService.save(booker.getId(),
+                new NewBookingRequest(item.getId(), now.plusDays(1), now.plusDays(2)));
+        bookingService.approveBooking(owner.getId(), sooner.getId(), true);
+
+        ItemBookingSummary summary = itemBookingSummaryRepository.findById(item.getId()).orElseThrow();
+        assertNull(summary.getLast());
+        assertEquals(sooner.getId(), summary.getNext().getBookingId());
+        assertEquals(BookingStatus.APPROVED, summary.getNext().getStatus());
+        assertNotEquals(later.getId(), summary.getNext().getBookingId());
+        assertFalse(summary.isStaleAt(now));
+        assertTrue(summary.isStaleAt(now.plusDays(1)));
+    }
+
+    @Test
+    void refreshStale_whenNextBookingStarted_thenRecomputesSummary() {
+        User owner = userRepository.save(new User(null, "owner", "owner@example.com"));
+        User booker = userRepository.save(new User(null, "booker", "booker@example.com"));
+        Item item = itemRepository.save(new Item(null, "item", "desc", true, owner, null));
+
+        LocalDateTime now = LocalDateTime.now();
+        Booking past = bookingRepository.save(new Booking(null, now.minusDays(2), now.minusDays(1),
+                item, booker, BookingStatus.APPROVED));
+        Booking future = bookingRepository.save(new Booking(null, now.plusDays(1), now.plusDays(2),
+                item, booker, BookingStatus.APPROVED));
+        ItemBookingSummary summary = new ItemBookingSummary(item.getId());
+        summary.setStaleAt(now.minusMinutes(1));
+        itemBookingSummaryRepository.save(summary);
+
+        itemBookingSummaryService.refreshStale();
+
+        ItemBookingSummary refreshed = itemBookingSummaryRepository.findById(item.getId()).orElseThrow();
+        assertEquals(past.getId(), refreshed.getLast().getBookingId());
+        assertEquals(future.getId(), refreshed.getNext().getBookingId());
+        assertEquals(future.getStart().withNano(0), refreshed.getStaleAt().withNano(0));
+    }
+
+    @Test
+    void findStaleItemIds_whenBookingEndsAtRefreshTime_thenRecomputedRowIsNotSelectedAgain() {
+        User owner = userRepository.save(new User(null, "owner", "owner@example.com"));
+        User booker = userRepository.save(new User(null, "booker", "booker@example.com"));
+        Item item = itemRepository.save(new Item(null, "item", "desc", true, owner, null));
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        bookingRepository.save(new Booking(null, now.minusDays(1), now, item, booker, BookingStatus.APPROVED));
+        ItemBookingSummary summary = new ItemBookingSummary(item.getId());
+        summary.setStaleAt(now.minusMinutes(1));
+        itemBookingSummaryRepository.save(summary);
+
+        assertEquals(List.of(item.getId()), itemBookingSummaryRepository.findStaleItemIds(now, Limit.of(500)));
+
+        ItemBookingSummary recomputed = itemBookingSummaryRepository.findById(item.getId()).orElseThrow();
+        recomputed.setStaleAt(itemBookingSummaryRepository.findEarliestEnds(List.of(item.getId()), now).get(0)
+                .getEarliestEnd());
+        itemBookingSummaryRepository.save(recomputed);
+
+        assertEquals(now, recomputed.getStaleAt());
+        assertTrue(itemBookingSummaryRepository.findStaleItemIds(now, Limit.of(500)).isEmpty());
+    }
+
+    @Test
+    void findAllByOwnerId_whenSummaryJoined_thenTakesBookingsFromIt() {
+        User owner = userRepository.save(new User(null, "owner", "owner@example.com"));
+        User booker = userRepository.save(new User(null, "booker", "booker@example.com"));
+        Item booked = itemRepository.save(new Item(null, "booked", "desc", true, owner, null));
+        Item idle = itemRepository.save(new Item(null, "idle", "desc", true, owner, null));
+
+        LocalDateTime now = LocalDateTime.now();
+        BookingDto next = bookingService.save(booker.getId(),
+                new NewBookingRequest(booked.getId(), now.plusDays(1), now.plusDays(2)));
+
+        Map<Long, ItemDto> items = itemUtilService.findAllByOwnerId(owner.getId()).stream()
+                .collect(Collectors.toMap(ItemDto::getId, Function.identity()));
+
+        assertEquals(next.getId(), items.get(booked.getId()).getNextBooking().getId());
+        assertEquals(BookingStatus.WAITING, items.get(booked.getId()).getNextBooking().getStatus());
+        assertNull(items.get(booked.getId()).getLastBooking());
+        assertNull(items.get(idle.getId()).getNextBooking());
+        assertNull(items.get(idle.getId()).getLastBooking());
+    }
+}
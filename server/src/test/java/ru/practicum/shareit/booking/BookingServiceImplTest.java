@@ -1,22 +1,31 @@
 package ru.practicum.shareit.booking;
 
+import lombok.AllArgsConstructor;
+import lombok.Getter;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import ru.practicum.shareit.booking.summary.ItemBookingSummaryService;
+import ru.practicum.shareit.exception.BookingOverlapException;
 import ru.practicum.shareit.exception.BookingStatusException;
 import ru.practicum.shareit.exception.ForbiddenException;
+import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.Item;
 import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.pagination.Cursor;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserService;
 
 import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -28,6 +37,11 @@ class BookingServiceImplTest {
     private UserService userService;
     @Mock
     private ItemService itemService;
+    @Mock
+    private BookingIntervalIndex bookingIntervalIndex;
+
+    @Mock
+    private ItemBookingSummaryService itemBookingSummaryService;
 
     @InjectMocks
     private BookingServiceImpl bookingService;
@@ -47,6 +61,7 @@ class BookingServiceImplTest {
 
         Mockito.when(userService.checkUser(bookerId)).thenReturn(booker);
         Mockito.when(itemService.checkAvailableItem(itemId)).thenReturn(item);
+        Mockito.when(bookingIntervalIndex.tryReserve(itemId, request.getStart(), request.getEnd())).thenReturn(true);
         Mockito.when(bookingRepository.save(Mockito.any())).thenReturn(booking);
 
         BookingDto result = bookingService.save(bookerId, request);
@@ -58,22 +73,42 @@ class BookingServiceImplTest {
         Mockito.verify(bookingRepository).save(Mockito.any());
     }
 
+    @Test
+    void save_whenIntervalOverlaps_thenThrowsBookingOverlapException() {
+        Long bookerId = 1L;
+        Long itemId = 10L;
+        NewBookingRequest request = new NewBookingRequest(itemId,
+                LocalDateTime.now().plusHours(1), LocalDateTime.now().plusDays(1));
+
+        User booker = new User(bookerId, "booker", "booker@email.com");
+        Item item = new Item(itemId, "item", "desc", true, new User(), null);
+
+        Mockito.when(userService.checkUser(bookerId)).thenReturn(booker);
+        Mockito.when(itemService.checkAvailableItem(itemId)).thenReturn(item);
+        Mockito.when(bookingIntervalIndex.tryReserve(itemId, request.getStart(), request.getEnd())).thenReturn(false);
+
+        assertThrows(BookingOverlapException.class, () -> bookingService.save(bookerId, request));
+
+        Mockito.verify(bookingRepository, Mockito.never()).save(Mockito.any());
+    }
+
     @Test
     void findAllByBookerIdAndState_whenStateAll_thenReturnsAllBookings() {
         Long bookerId = 1L;
         User booker = new User(bookerId, "booker", "email");
-        Item item = new Item(2L, "item", "desc", true, new User(), null);
-        Booking booking = new Booking(10L, LocalDateTime.now(), LocalDateTime.now().plusDays(1), item, booker, BookingStatus.APPROVED);
+        BookingRow booking = new BookingRow(10L, LocalDateTime.now(), LocalDateTime.now().plusDays(1), BookingStatus.APPROVED,
+                2L, "item", true, 3L, "owner@email.com", bookerId, "booker", "email");
 
         Mockito.when(userService.checkUser(bookerId)).thenReturn(booker);
-        Mockito.when(bookingRepository.findByBookerIdOrderByStart(bookerId)).thenReturn(List.of(booking));
+        Mockito.when(bookingRepository.findPageByBookerId(bookerId, Cursor.FIRST.getTime(), Cursor.FIRST.getId(), Limit.of(20)))
+                .thenReturn(List.of(booking));
 
-        Collection<BookingDto> result = bookingService.findAllByBookerIdAndState(bookerId, BookingState.ALL);
+        Collection<BookingDto> result = bookingService.findAllByBookerIdAndState(bookerId, BookingState.ALL, null, 20);
 
         assertEquals(1, result.size());
         assertEquals(10L, result.iterator().next().getId());
         Mockito.verify(userService).checkUser(bookerId);
-        Mockito.verify(bookingRepository).findByBookerIdOrderByStart(bookerId);
+        Mockito.verify(bookingRepository).findPageByBookerId(bookerId, Cursor.FIRST.getTime(), Cursor.FIRST.getId(), Limit.of(20));
     }
 
     @Test
@@ -81,18 +116,32 @@ class BookingServiceImplTest {
         Long ownerId = 2L;
         User owner = new User(ownerId, "owner", "owner@email.com");
         User booker = new User(1L, "booker", "booker@email.com");
-        Item item = new Item(5L, "item", "desc", true, owner, null);
-        Booking booking = new Booking(20L, LocalDateTime.now(), LocalDateTime.now().plusDays(1), item, booker, BookingStatus.APPROVED);
+        BookingRow booking = new BookingRow(20L, LocalDateTime.now(), LocalDateTime.now().plusDays(1), BookingStatus.APPROVED,
+                5L, "item", true, ownerId, owner.getEmail(), booker.getId(), booker.getName(), booker.getEmail());
 
         Mockito.when(userService.checkUser(ownerId)).thenReturn(owner);
-        Mockito.when(bookingRepository.findByItemOwnerIdOrderByStart(ownerId)).thenReturn(List.of(booking));
+        Cursor after = new Cursor(LocalDateTime.of(2024, 1, 1, 10, 0), 7L);
+        Mockito.when(bookingRepository.findPageByItemOwnerId(ownerId, after.getTime(), after.getId(), Limit.of(5)))
+                .thenReturn(List.of(booking));
 
-        Collection<BookingDto> result = bookingService.findAllByOwnerIdAndState(ownerId, BookingState.ALL);
+        Collection<BookingDto> result = bookingService.findAllByOwnerIdAndState(ownerId, BookingState.ALL, after, 5);
 
         assertEquals(1, result.size());
         assertEquals(20L, result.iterator().next().getId());
+        assertEquals(5L, result.iterator().next().getItem().getId());
+        assertEquals(ownerId, result.iterator().next().getItem().getOwnerId());
+        assertEquals(booker.getEmail(), result.iterator().next().getBooker().getEmail());
         Mockito.verify(userService).checkUser(ownerId);
-        Mockito.verify(bookingRepository).findByItemOwnerIdOrderByStart(ownerId);
+        Mockito.verify(bookingRepository).findPageByItemOwnerId(ownerId, after.getTime(), after.getId(), Limit.of(5));
+    }
+
+    @Test
+    void findAllByBookerIdAndState_whenLimitTooLarge_thenThrowsValidationException() {
+        Long bookerId = 1L;
+        Mockito.when(userService.checkUser(bookerId)).thenReturn(new User(bookerId, "booker", "email"));
+
+        assertThrows(ValidationException.class,
+                () -> bookingService.findAllByBookerIdAndState(bookerId, BookingState.ALL, null, 1000));
     }
 
     @Test
@@ -141,6 +190,25 @@ class BookingServiceImplTest {
 
         assertEquals(BookingStatus.APPROVED, result.getStatus());
         Mockito.verify(bookingRepository).save(Mockito.any());
+        Mockito.verify(bookingIntervalIndex, Mockito.never()).release(Mockito.any());
+    }
+
+    @Test
+    void approveBooking_whenRejected_thenReleasesInterval() {
+        Long bookingId = 1L;
+        Long userId = 2L;
+        User booker = new User(3L, "booker", "booker@email.com");
+        User owner = new User(userId, "owner", "owner@email.com");
+        Item item = new Item(5L, "item", "desc", true, owner, null);
+        Booking booking = new Booking(bookingId, LocalDateTime.now(), LocalDateTime.now().plusDays(1), item, booker, BookingStatus.WAITING);
+
+        Mockito.when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
+        Mockito.when(bookingRepository.save(Mockito.any())).thenReturn(booking);
+
+        BookingDto result = bookingService.approveBooking(userId, bookingId, false);
+
+        assertEquals(BookingStatus.REJECTED, result.getStatus());
+        Mockito.verify(bookingIntervalIndex).release(booking);
     }
 
     @Test
@@ -156,4 +224,49 @@ class BookingServiceImplTest {
         assertThrows(BookingStatusException.class, () -> bookingService.approveBooking(owner.getId(), bookingId, true));
     }
 
-}
\ No newline at end of file
+    @Test
+    void approveBookings_whenStatusChangedBeforeUpdate_thenReportsConflictAndAppliesOnlyOwnChanges() {
+        Long ownerId = 2L;
+        Long itemId = 5L;
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        Candidate toApprove = new Candidate(1L, itemId, ownerId, BookingStatus.WAITING, start, start.plusHours(1));
+        Candidate toReject = new Candidate(2L, itemId, ownerId, BookingStatus.WAITING,
+                start.plusHours(2), start.plusHours(3));
+        Candidate raced = new Candidate(3L, itemId, ownerId, BookingStatus.WAITING,
+                start.plusHours(4), start.plusHours(5));
+        Candidate racedNow = new Candidate(3L, itemId, ownerId, BookingStatus.REJECTED,
+                raced.getStart(), raced.getEnd());
+        Candidate approvedNow = new Candidate(1L, itemId, ownerId, BookingStatus.APPROVED,
+                toApprove.getStart(), toApprove.getEnd());
+
+        Mockito.when(bookingRepository.findApprovalCandidates(Mockito.any()))
+                .thenReturn(List.of(toApprove, toReject, raced))
+                .thenReturn(List.of(approvedNow, racedNow));
+        Mockito.when(bookingRepository.updateWaitingStatus(List.of(1L, 3L), BookingStatus.APPROVED)).thenReturn(1);
+        Mockito.when(bookingRepository.updateWaitingStatus(List.of(2L), BookingStatus.REJECTED)).thenReturn(1);
+
+        List<BookingApprovalResult> results = bookingService.approveBookings(ownerId, List.of(
+                new BookingDecision(1L, true),
+                new BookingDecision(2L, false),
+                new BookingDecision(3L, true)));
+
+        assertEquals(List.of(200, 200, 409), results.stream().map(BookingApprovalResult::getStatus).toList());
+        assertEquals(BookingStatus.REJECTED, results.get(2).getBookingStatus());
+        assertNotNull(results.get(2).getError());
+        Mockito.verify(bookingIntervalIndex).release(itemId, toReject.getStart(), toReject.getEnd());
+        Mockito.verify(bookingIntervalIndex, Mockito.never()).release(itemId, raced.getStart(), raced.getEnd());
+        Mockito.verify(itemBookingSummaryService).onBookingStatusesChanged(Set.of(itemId),
+                Map.of(1L, BookingStatus.APPROVED, 2L, BookingStatus.REJECTED));
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class Candidate implements BookingApprovalCandidate {
+        private Long id;
+        private Long itemId;
+        private Long ownerId;
+        private BookingStatus status;
+        private LocalDateTime start;
+        private LocalDateTime end;
+    }
+}
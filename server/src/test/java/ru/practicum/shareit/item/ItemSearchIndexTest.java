@@ -0,0 +1,126 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import ru.practicum.shareit.user.User;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class ItemSearchIndexTest {
+    @Mock
+    private ItemStorage itemRepository;
+
+    @InjectMocks
+    private ItemSearchIndex itemSearchIndex;
+
+    @Test
+    void warmUp_whenAvailableItemsExist_thenIndexesThemInBatches() {
+        Item drill = new Item(1L, "Дрель", "Аккумуляторная дрель", true, new User(), null);
+        Item saw = new Item(2L, "Пила", "Ручная пила", true, new User(), null);
+        Mockito.when(itemRepository.findByAvailableTrueAndIdGreaterThanOrderById(Mockito.eq(0L), Mockito.any(Limit.class)))
+                .thenReturn(List.of(drill, saw));
+        Mockito.when(itemRepository.findByAvailableTrueAndIdGreaterThanOrderById(Mockito.eq(2L), Mockito.any(Limit.class)))
+                .thenReturn(List.of());
+
+        itemSearchIndex.warmUp();
+
+        assertEquals(Set.of(1L), Set.copyOf(itemSearchIndex.search("ДРЕЛЬ", 0, 1000)));
+        assertEquals(Set.of(2L), Set.copyOf(itemSearchIndex.search("ручн", 0, 1000)));
+    }
+
+    @Test
+    void index_whenItemUpdated_thenOldTextIsNoLongerFound() {
+        itemSearchIndex.index(new Item(1L, "Дрель", "Ударная", true, new User(), null));
+        itemSearchIndex.index(new Item(1L, "Отвертка", "Крестовая", true, new User(), null));
+
+        assertTrue(itemSearchIndex.search("дрель", 0, 1000).isEmpty());
+        assertEquals(List.of(1L), List.copyOf(itemSearchIndex.search("крест", 0, 1000)));
+    }
+
+    @Test
+    void index_whenItemBecomesUnavailable_thenRemovesIt() {
+        itemSearchIndex.index(new Item(1L, "Дрель", "Ударная", true, new User(), null));
+        itemSearchIndex.index(new Item(1L, "Дрель", "Ударная", false, new User(), null));
+
+        assertTrue(itemSearchIndex.search("дрель", 0, 1000).isEmpty());
+        assertTrue(itemSearchIndex.search("др", 0, 1000).isEmpty());
+    }
+
+    @Test
+    void delete_whenItemDeleted_thenRemovesIt() {
+        itemSearchIndex.index(new Item(1L, "Дрель", "Ударная", true, new User(), null));
+        itemSearchIndex.delete(1L);
+
+        assertTrue(itemSearchIndex.search("дрель", 0, 1000).isEmpty());
+    }
+
+    @Test
+    void search_whenPaged_thenRanksNameHitsFirstThenByFrequency() {
+        itemSearchIndex.index(new Item(1L, "Стол", "дрель в комплекте, дрель запасная", true, new User(), null));
+        itemSearchIndex.index(new Item(2L, "Дрель", "ударная", true, new User(), null));
+        itemSearchIndex.index(new Item(3L, "Дрель", "дрель и биты", true, new User(), null));
+        itemSearchIndex.index(new Item(4L, "Стул", "дрель", true, new User(), null));
+
+        assertEquals(List.of(3L, 2L, 1L, 4L), itemSearchIndex.search("дрель", 0, 10));
+        assertEquals(List.of(3L, 2L), itemSearchIndex.search("дрель", 0, 2));
+        assertEquals(List.of(1L, 4L), itemSearchIndex.search("дрель", 2, 2));
+        assertTrue(itemSearchIndex.search("дрель", 4, 2).isEmpty());
+    }
+
+    @Test
+    void search_whenQueryShorterThanGram_thenFindsBySubstringPostings() {
+        itemSearchIndex.index(new Item(1L, "Дрель", "ударная", true, new User(), null));
+        itemSearchIndex.index(new Item(2L, "Пила", "ручная", true, new User(), null));
+        itemSearchIndex.index(new Item(3L, "Рубанок", "", true, new User(), null));
+
+        assertEquals(Set.of(1L, 2L), Set.copyOf(itemSearchIndex.search("ая", 0, 10)));
+        assertEquals(List.of(1L, 3L, 2L), itemSearchIndex.search("р", 0, 10));
+        assertTrue(itemSearchIndex.search("щ", 0, 10).isEmpty());
+        assertTrue(itemSearchIndex.search("", 0, 10).isEmpty());
+    }
+
+    @Test
+    void search_whenRandomTexts_thenMatchesSubstringSearch() {
+        Random random = new Random(42);
+        List<Item> items = new ArrayList<>();
+        for (long id = 1; id <= 500; id++) {
+            Item item = new Item(id, randomText(random), randomText(random), true, new User(), null);
+            items.add(item);
+            itemSearchIndex.index(item);
+        }
+
+        for (int i = 0; i < 200; i++) {
+            String query = randomText(random).substring(0, 1 + random.nextInt(5));
+            String lowerQuery = query.toLowerCase(Locale.ROOT);
+            Set<Long> expected = items.stream()
+                    .filter(item -> item.getName().toLowerCase(Locale.ROOT).contains(lowerQuery)
+                            || item.getDescription().toLowerCase(Locale.ROOT).contains(lowerQuery))
+                    .map(Item::getId)
+                    .collect(Collectors.toSet());
+
+            assertEquals(expected, Set.copyOf(itemSearchIndex.search(query, 0, 1000)), "query: " + query);
+        }
+    }
+
+    private static String randomText(Random random) {
+        String alphabet = "abcdeABCDE ";
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 5 + random.nextInt(20); i++) {
+            text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return text.toString();
+    }
+}
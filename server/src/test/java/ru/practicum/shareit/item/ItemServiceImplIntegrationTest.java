@@ -1,17 +1,35 @@
 package ru.practicum.shareit.item;
 
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.comment.CommentDto;
 import ru.practicum.shareit.item.comment.CommentStorage;
 import ru.practicum.shareit.item.comment.NewCommentRequest;
+import ru.practicum.shareit.pagination.Cursor;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.ItemRequestStorage;
+import ru.practicum.shareit.user.UpdateUserRequest;
 import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserService;
 import ru.practicum.shareit.user.UserStorage;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest
@@ -20,6 +38,9 @@ class ItemServiceImplIntegrationTest {
     @Autowired
     private ItemService itemService;
 
+    @Autowired
+    private UserService userService;
+
     @Autowired
     private UserStorage userRepository;
 
@@ -29,6 +50,12 @@ class ItemServiceImplIntegrationTest {
     @Autowired
     private CommentStorage commentRepository;
 
+    @Autowired
+    private ItemRequestStorage itemRequestRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
     private User user;
 
     @BeforeEach
@@ -90,5 +117,123 @@ class ItemServiceImplIntegrationTest {
         assertThrows(NotFoundException.class, () -> itemService.findItemById(item.getId()));
     }
 
+    @Test
+    void findItemCard_whenItemUpdatedOrCommented_thenChanges() {
+        ItemDto item = itemService.save(user.getId(), new NewItemRequest("item", "desc", true, null), null);
+        String created = itemService.findItemCard(item.getId()).eTag();
 
-}
\ No newline at end of file
+        UpdateItemRequest update = new UpdateItemRequest();
+        update.setName("uname");
+        itemService.update(user.getId(), item.getId(), update);
+        String updated = itemService.findItemCard(item.getId()).eTag();
+
+        itemService.saveComment(user, itemRepository.findById(item.getId()).orElseThrow(), new NewCommentRequest("comment"));
+        String commented = itemService.findItemCard(item.getId()).eTag();
+
+        assertNotEquals(created, updated);
+        assertNotEquals(updated, commented);
+    }
+
+    @Test
+    void findItemById_whenOwnerOrCommentAuthorRenamed_thenShowsNewNameUnderNewETag() {
+        User author = userRepository.save(new User(null, "author", "author@email.com"));
+        ItemDto item = itemService.save(user.getId(), new NewItemRequest("item", "desc", true, null), null);
+        itemService.saveComment(author, itemRepository.findById(item.getId()).orElseThrow(),
+                new NewCommentRequest("comment"));
+        assertEquals("user", itemService.findItemById(item.getId()).getOwner().getName());
+        String before = itemService.findItemCard(item.getId()).eTag();
+
+        userService.update(user.getId(), new UpdateUserRequest(user.getId(), "owner", "user@email.com"));
+        String ownerRenamed = itemService.findItemCard(item.getId()).eTag();
+        userService.update(author.getId(), new UpdateUserRequest(author.getId(), "critic", "author@email.com"));
+        ItemDto found = itemService.findItemById(item.getId());
+
+        assertNotEquals(before, ownerRenamed);
+        assertNotEquals(ownerRenamed, itemService.findItemCard(item.getId()).eTag());
+        assertEquals("owner", found.getOwner().getName());
+        assertEquals("critic", found.getComments().iterator().next().getAuthorName());
+    }
+
+    @Test
+    void findCommentsByItemId_whenManyComments_thenPagesNewestFirstAndEmbedsOnlyRecentWithCount() {
+        Item popular = itemRepository.save(new Item(null, "popular", "desc", true, user, null));
+        Item quiet = itemRepository.save(new Item(null, "quiet", "desc", true, user, null));
+        List<Long> newestFirst = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            newestFirst.add(0, itemService.saveComment(user, popular, new NewCommentRequest("comment" + i)).getId());
+        }
+        Long quietComment = itemService.saveComment(user, quiet, new NewCommentRequest("quiet")).getId();
+        entityManager.flush();
+        entityManager.clear();
+
+        List<Long> paged = new ArrayList<>();
+        Collection<CommentDto> page = itemService.findCommentsByItemId(popular.getId(), null, 10);
+        while (!page.isEmpty()) {
+            page.forEach(comment -> paged.add(comment.getId()));
+            CommentDto last = List.copyOf(page).get(page.size() - 1);
+            page = itemService.findCommentsByItemId(popular.getId(), new Cursor(last.getCreated(), last.getId()), 10);
+        }
+        ItemDto item = itemService.findItemById(popular.getId());
+        Map<Long, List<CommentDto>> recent = itemService.findAllCommentsByItemIds(List.of(popular.getId(), quiet.getId()));
+
+        assertEquals(newestFirst, paged);
+        assertEquals(25L, item.getCommentCount());
+        assertEquals(newestFirst.subList(0, 10), item.getComments().stream().map(CommentDto::getId).toList());
+        assertEquals(newestFirst.subList(0, 10), recent.get(popular.getId()).stream().map(CommentDto::getId).toList());
+        assertEquals(List.of(quietComment), recent.get(quiet.getId()).stream().map(CommentDto::getId).toList());
+        assertEquals("user", recent.get(quiet.getId()).get(0).getAuthorName());
+    }
+
+    @Test
+    void findCommentsByItemId_whenItemMissingOrLimitTooLarge_thenThrows() {
+        Item item = itemRepository.save(new Item(null, "item", "desc", true, user, null));
+
+        assertThrows(NotFoundException.class, () -> itemService.findCommentsByItemId(999L, null, 10));
+        assertThrows(ValidationException.class, () -> itemService.findCommentsByItemId(item.getId(), null, 101));
+    }
+
+    @Test
+    void findItemCard_whenItemNotFound_thenThrowsNotFoundException() {
+        assertThrows(NotFoundException.class, () -> itemService.findItemCard(999L));
+    }
+
+    @Test
+    void findAllItemsByRequestIds_whenThousandsOfRequests_thenGroupsItemsByRequestId() {
+        User requestor = userRepository.save(new User(null, "requestor", "requestor@email.com"));
+        User otherOwner = userRepository.save(new User(null, "other", "other@email.com"));
+        List<ItemRequest> requests = itemRequestRepository.saveAll(IntStream.range(0, 2_000)
+                .mapToObj(i -> new ItemRequest(null, "request" + i, requestor, LocalDateTime.now()))
+                .toList());
+        List<Item> items = new ArrayList<>();
+        Map<Long, Set<Long>> expected = new HashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            ItemRequest request = requests.get(i);
+            for (int j = 0; j < i % 4; j++) {
+                User owner = j % 2 == 0 ? user : otherOwner;
+                items.add(new Item(null, "item" + i + "_" + j, "desc", j != 1, owner, request));
+            }
+        }
+        for (Item item : itemRepository.saveAll(items)) {
+            expected.computeIfAbsent(item.getRequest().getId(), requestId -> new HashSet<>()).add(item.getId());
+        }
+        Item unrelated = itemRepository.save(new Item(null, "unrelated", "desc", true, user, null));
+
+        Map<Long, List<ItemShortDto>> result = itemService.findAllItemsByRequestIds(
+                requests.stream().map(ItemRequest::getId).toList());
+
+        assertEquals(expected.keySet(), result.keySet());
+        for (Map.Entry<Long, List<ItemShortDto>> entry : result.entrySet()) {
+            assertEquals(expected.get(entry.getKey()),
+                    entry.getValue().stream().map(ItemShortDto::getId).collect(Collectors.toSet()));
+        }
+        ItemShortDto answer = result.values().stream()
+                .flatMap(List::stream)
+                .filter(item -> item.getOwnerId().equals(otherOwner.getId()))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(otherOwner.getEmail(), answer.getOwnerEmail());
+        assertFalse(answer.getAvailable());
+        assertTrue(result.values().stream().flatMap(List::stream).noneMatch(item -> item.getId().equals(unrelated.getId())));
+        assertTrue(itemService.findAllItemsByRequestIds(List.of()).isEmpty());
+    }
+}
@@ -1,23 +1,31 @@
 package ru.practicum.shareit.item;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.booking.summary.ItemBookingSummaryService;
 import ru.practicum.shareit.exception.ForbiddenException;
 import ru.practicum.shareit.exception.ItemUnavailableException;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.comment.Comment;
+import ru.practicum.shareit.item.comment.CommentEligibilityCache;
 import ru.practicum.shareit.item.comment.CommentDto;
 import ru.practicum.shareit.item.comment.CommentStorage;
 import ru.practicum.shareit.item.comment.NewCommentRequest;
 import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.ItemRequestMatcher;
+import ru.practicum.shareit.request.ItemRequestStorage;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserService;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
@@ -35,6 +43,24 @@ class ItemServiceImplUnitTest {
     @Mock
     private CommentStorage commentRepository;
 
+    @Mock
+    private ItemBookingSummaryService itemBookingSummaryService;
+
+    @Mock
+    private ItemSearchIndex itemSearchIndex;
+
+    @Mock
+    private ItemRequestStorage itemRequestRepository;
+
+    @Mock
+    private ItemRequestMatcher itemRequestMatcher;
+
+    @Mock
+    private CommentEligibilityCache commentEligibilityCache;
+
+    @Spy
+    private ItemDtoCache itemDtoCache = new ItemDtoCache(10_000, Duration.ofMinutes(1), new SimpleMeterRegistry());
+
     @InjectMocks
     private ItemServiceImpl itemService;
 
@@ -72,6 +98,7 @@ class ItemServiceImplUnitTest {
         Item item = new Item(itemId, "name", "desc", true, new User(), null);
 
         Mockito.when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
+        Mockito.when(itemRepository.findVersionById(itemId)).thenReturn(Optional.of(0L));
 
         ItemDto result = itemService.findItemById(itemId);
 
@@ -87,30 +114,90 @@ class ItemServiceImplUnitTest {
     }
 
     @Test
-    void findAllByText_whenItemsFound_thenReturnsItemDtosWithComments() {
-        String searchText = "text";
-        Item item1 = new Item(1L, "text1", "desc1", true, new User(), null);
-        Item item2 = new Item(2L, "text2", "desc2", true, new User(), null);
-        List<Item> items = List.of(item1, item2);
+    void findItemById_whenCalledTwice_thenLoadsItemOnce() {
+        Long itemId = 36L;
+        Item item = new Item(itemId, "name", "desc", true, new User(), null);
+        Mockito.when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
+        Mockito.when(itemRepository.findVersionById(itemId)).thenReturn(Optional.of(0L));
+
+        itemService.findItemById(itemId);
+        ItemDto result = itemService.findItemById(itemId);
+
+        assertEquals("name", result.getName());
+        Mockito.verify(itemRepository, Mockito.times(1)).findById(itemId);
+        Mockito.verify(commentRepository, Mockito.times(1))
+                .findPageByItemId(Mockito.eq(itemId), Mockito.any(), Mockito.any(), Mockito.any());
+    }
 
-        Comment comment1 = new Comment(1L, "good", item1, new User(), LocalDateTime.now());
-        Comment comment2 = new Comment(2L, "bad", item2, new User(), LocalDateTime.now());
+    @Test
+    void findItemCard_whenServedFromCache_thenETagIsVersionCardWasBuiltFrom() {
+        Long itemId = 36L;
+        Item item = new Item(itemId, "name", "desc", true, new User(), null);
+        Mockito.when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
+        Mockito.when(itemRepository.findVersionById(itemId)).thenReturn(Optional.of(3L), Optional.of(4L));
 
-        Mockito.when(itemRepository.findAllByText(searchText)).thenReturn(items);
-        Mockito.when(commentRepository.findByItemIdIn(List.of(1L, 2L)))
+        ItemCard loaded = itemService.findItemCard(itemId);
+        ItemCard cached = itemService.findItemCard(itemId);
+
+        assertEquals("3", loaded.eTag());
+        assertSame(loaded, cached);
+        Mockito.verify(itemRepository, Mockito.times(1)).findVersionById(itemId);
+    }
+
+    @Test
+    void findItemById_whenItemUpdated_thenReloadsItem() {
+        Long userId = 1L;
+        Long itemId = 36L;
+        User owner = new User(userId, "name", "email@email.com");
+        Item item = new Item(itemId, "name", "desc", true, owner, null);
+        Mockito.when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
+        Mockito.when(itemRepository.findVersionById(itemId)).thenReturn(Optional.of(0L));
+        Mockito.when(itemRepository.save(Mockito.any())).thenAnswer(invocation -> invocation.getArgument(0));
+        UpdateItemRequest updateRequest = new UpdateItemRequest();
+        updateRequest.setName("newName");
+
+        itemService.findItemById(itemId);
+        itemService.update(userId, itemId, updateRequest);
+        ItemDto result = itemService.findItemById(itemId);
+
+        assertEquals("newName", result.getName());
+        Mockito.verify(itemDtoCache).invalidate(itemId);
+    }
+
+    @Test
+    void findAllByText_whenItemsFound_thenReturnsItemDtosWithComments() {
+        String searchText = "text";
+        ItemRow item1 = new ItemRow(1L, "text1", "desc1", true, 1L, 10L, "owner", "owner@email.com",
+                null, null, null, null, null, null);
+        ItemRow item2 = new ItemRow(2L, "text2", "desc2", true, 1L, 10L, "owner", "owner@email.com",
+                null, null, null, null, null, null);
+        List<ItemRow> items = List.of(item2, item1);
+
+        CommentDto comment1 = new CommentDto(1L, "good", 1L, "author", LocalDateTime.now());
+        CommentDto comment2 = new CommentDto(2L, "bad", 2L, "author", LocalDateTime.now());
+
+        Mockito.when(itemSearchIndex.search(searchText, 0, 20)).thenReturn(List.of(1L, 2L));
+        Mockito.when(itemRepository.findAllRowsByIdIn(List.of(1L, 2L))).thenReturn(items);
+        Mockito.when(commentRepository.findByItemIdIn(Mockito.eq(List.of(1L, 2L)), Mockito.anyInt()))
                 .thenReturn(List.of(comment1, comment2));
 
-        Collection<ItemDto> result = itemService.findAllByText(searchText);
+        Collection<ItemDto> result = itemService.findAllByText(searchText, 0, 20);
 
-        assertEquals(2, result.size());
-        assertTrue(result.stream().anyMatch(dto -> dto.getName().equals("text1")));
-        assertTrue(result.stream().anyMatch(dto -> dto.getName().equals("text2")));
+        assertEquals(List.of("text1", "text2"), result.stream().map(ItemDto::getName).toList());
+        assertEquals("owner@email.com", result.iterator().next().getOwner().getEmail());
 
-        Mockito.verify(itemRepository).findAllByText(searchText);
-        Mockito.verify(commentRepository).findByItemIdIn(List.of(1L, 2L));
+        Mockito.verify(itemSearchIndex).search(searchText, 0, 20);
+        Mockito.verify(commentRepository).findByItemIdIn(Mockito.eq(List.of(1L, 2L)), Mockito.anyInt());
     }
 
 
+    @Test
+    void findAllByText_whenSizeTooLarge_thenThrowsValidationException() {
+        assertThrows(ValidationException.class, () -> itemService.findAllByText("text", 0, 1000));
+
+        Mockito.verifyNoInteractions(itemSearchIndex);
+    }
+
     @Test
     void update_whenOwnerMatches_thenItemIsUpdated() {
         Long userId = 1L;
@@ -126,7 +213,6 @@ class ItemServiceImplUnitTest {
 
         Mockito.when(itemRepository.findById(itemId)).thenReturn(Optional.of(originalItem));
         Mockito.when(itemRepository.save(Mockito.any())).thenReturn(updatedItem);
-        Mockito.when(commentRepository.findByItemId(itemId)).thenReturn(List.of());
 
         ItemDto result = itemService.update(userId, itemId, updateRequest);
 
@@ -164,6 +250,7 @@ class ItemServiceImplUnitTest {
         itemService.delete(userId, itemId);
 
         Mockito.verify(itemRepository).deleteById(itemId);
+        Mockito.verify(commentEligibilityCache).invalidateItem(itemId);
     }
 
     @Test
@@ -273,8 +360,8 @@ class ItemServiceImplUnitTest {
     @Test
     void findAllByRequestId_whenItemsExist_thenReturnsShortDtos() {
         Long requestId = 5L;
-        Item item1 = new Item(101L, "item1", "desc1", true, new User(), new ItemRequest(requestId, null, null, null));
-        Item item2 = new Item(102L, "item2", "desc2", true, new User(), new ItemRequest(requestId, null, null, null));
+        ItemShortDto item1 = new ItemShortDto(101L, "item1", true, 1L, "owner@email.com");
+        ItemShortDto item2 = new ItemShortDto(102L, "item2", true, 1L, "owner@email.com");
 
         Mockito.when(itemRepository.findAllByRequestId(requestId))
                 .thenReturn(List.of(item1, item2));
@@ -8,6 +8,8 @@ import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 import ru.practicum.shareit.booking.BookingService;
 import ru.practicum.shareit.booking.BookingShortDto;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.summary.BookingSnapshot;
 import ru.practicum.shareit.exception.UnavailableToCommentException;
 import ru.practicum.shareit.item.comment.CommentDto;
 import ru.practicum.shareit.item.comment.NewCommentRequest;
@@ -16,6 +18,7 @@ import ru.practicum.shareit.request.ItemRequestService;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserService;
 
+import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
@@ -34,6 +37,7 @@ class ItemUtilServiceTest {
     private ItemStorage itemRepository;
     @Mock
     private ItemRequestService itemRequestService;
+
     @InjectMocks
     private ItemUtilService itemUtilService;
 
@@ -111,9 +115,11 @@ class ItemUtilServiceTest {
     @Test
     void findAllByOwnerId_whenItemsExist_thenReturnsEnrichedItemDtos() {
         Long ownerId = 7L;
-        Item item1 = new Item(1L, "item1", "desc1", true, new User(ownerId, null, null), null);
-        Item item2 = new Item(2L, "item2", "desc2", true, new User(ownerId, null, null), null);
-        List<Item> items = List.of(item1, item2);
+        ItemRow item1 = new ItemRow(1L, "item1", "desc1", true, 0L, ownerId, null, null,
+                null, null, null, null, null, null, null, null, null, null);
+        ItemRow item2 = new ItemRow(2L, "item2", "desc2", true, 0L, ownerId, null, null,
+                3L, "request", LocalDateTime.now(), 8L, "requestor", "requestor@email.com", null, null, null, null);
+        List<ItemRow> items = List.of(item1, item2);
 
         BookingShortDto prev1 = new BookingShortDto();
         BookingShortDto next1 = new BookingShortDto();
@@ -135,11 +141,33 @@ class ItemUtilServiceTest {
         Collection<ItemDto> result = itemUtilService.findAllByOwnerId(ownerId);
 
         assertEquals(2, result.size());
+        ItemDto answered = result.stream().filter(itemDto -> itemDto.getId().equals(2L)).findFirst().orElseThrow();
+        assertEquals(ownerId, answered.getOwner().getId());
+        assertEquals(3L, answered.getRequest().getId());
+        assertEquals("requestor@email.com", answered.getRequest().getRequestor().getEmail());
+        assertSame(next2, answered.getNextBooking());
         Mockito.verify(itemRepository).findAllByOwnerId(ownerId);
         Mockito.verify(itemService).findAllCommentsByItemIds(List.of(1L, 2L));
         Mockito.verify(bookingService).findAllPrevsByItemIds(List.of(1L, 2L));
         Mockito.verify(bookingService).findAllNextsByItemIds(List.of(1L, 2L));
     }
 
+    @Test
+    void findAllByOwnerId_whenSummaryJoinedAndFresh_thenSkipsBookingQueries() {
+        Long ownerId = 7L;
+        LocalDateTime now = LocalDateTime.now();
+        BookingSnapshot next = new BookingSnapshot(5L, now.plusDays(1), now.plusDays(2), 9L, BookingStatus.APPROVED);
+        ItemRow item = new ItemRow(1L, "item1", "desc1", true, 0L, ownerId, null, null,
+                null, null, null, null, null, null, 1L, now.plusDays(1), null, next);
+
+        Mockito.when(itemRepository.findAllByOwnerId(ownerId)).thenReturn(List.of(item));
+        Mockito.when(itemService.findAllCommentsByItemIds(List.of(1L))).thenReturn(Map.of());
+
+        ItemDto result = itemUtilService.findAllByOwnerId(ownerId).iterator().next();
 
-}
\ No newline at end of file
+        assertNull(result.getLastBooking());
+        assertEquals(5L, result.getNextBooking().getId());
+        assertEquals(1L, result.getNextBooking().getItemId());
+        Mockito.verifyNoInteractions(bookingService);
+    }
+}
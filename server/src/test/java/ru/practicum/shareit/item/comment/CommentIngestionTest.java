@@ -0,0 +1,210 @@
+package ru.practicum.shareit.item.comment;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.mockito.Mockito;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.BookingStorage;
+import ru.practicum.shareit.exception.CommentQueueOverflowException;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.exception.UnavailableToCommentException;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemStorage;
+import ru.practicum.shareit.item.ItemUtilService;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserStorage;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "shareit.comments.async.enabled=true",
+        "shareit.comments.async.queue-capacity=3",
+        "shareit.comments.async.batch-size=2",
+        "shareit.comments.async.flush-delay=PT1H",
+        "shareit.comments.async.retry-backoff=PT0S",
+        "shareit.comments.async.retry-max-backoff=PT0S"
+})
+class CommentIngestionTest {
+    @Autowired
+    private CommentIngestion commentIngestion;
+
+    @Autowired
+    private ItemUtilService itemUtilService;
+
+    @Autowired
+    private CommentEligibilityCache eligibilityCache;
+
+    @SpyBean
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserStorage userRepository;
+
+    @Autowired
+    private ItemStorage itemRepository;
+
+    @Autowired
+    private BookingStorage bookingRepository;
+
+    private User owner;
+    private User booker;
+    private User stranger;
+    private Item item;
+
+    @BeforeEach
+    void beforeEach() {
+        owner = userRepository.save(new User(null, "owner", "owner@example.com"));
+        booker = userRepository.save(new User(null, "booker", "booker@example.com"));
+        stranger = userRepository.save(new User(null, "stranger", "stranger@example.com"));
+        item = itemRepository.save(new Item(null, "Дрель", "Ударная", true, owner, null));
+        LocalDateTime now = LocalDateTime.now();
+        bookingRepository.save(new Booking(null, now.minusDays(2), now.minusDays(1), item, booker,
+                BookingStatus.APPROVED));
+    }
+
+    /**
+     * БД общая с остальными тестами, поэтому удаляются только строки, созданные этим тестом.
+     */
+    @AfterEach
+    void afterEach() {
+        commentIngestion.flush();
+        for (String table : List.of("comments", "item_booking_summary", "bookings")) {
+            jdbcTemplate.update("DELETE FROM " + table + " WHERE item_id = ?", item.getId());
+        }
+        jdbcTemplate.update("DELETE FROM items WHERE id = ?", item.getId());
+        jdbcTemplate.update("DELETE FROM users WHERE id IN (?, ?, ?)", owner.getId(), booker.getId(), stranger.getId());
+    }
+
+    @Test
+    void submit_whenEligible_thenWritesBatchesOnFlush() {
+        List<CommentDto> accepted = Stream.of("Отлично", "Хорошо", "Сойдет")
+                .map(text -> commentIngestion.submit(booker.getId(), item.getId(), request(text)))
+                .toList();
+
+        assertEquals(3, accepted.stream().map(CommentDto::getId).distinct().count());
+        assertEquals("booker", accepted.get(0).getAuthorName());
+        assertEquals(0, countComments());
+
+        commentIngestion.flush();
+
+        assertEquals(3, countComments());
+        assertEquals(3L, jdbcTemplate.queryForObject("SELECT comment_count FROM items WHERE id = ?",
+                Long.class, item.getId()));
+        Set<Long> writtenIds = jdbcTemplate.queryForList("SELECT id FROM comments WHERE item_id = ?", Long.class,
+                        item.getId()).stream()
+                .collect(Collectors.toSet());
+        assertEquals(accepted.stream().map(CommentDto::getId).collect(Collectors.toSet()), writtenIds);
+    }
+
+    @Test
+    void submit_whenSyncCommentSavedToo_thenIdsDoNotCollide() {
+        CommentDto async = commentIngestion.submit(booker.getId(), item.getId(), request("Асинхронно"));
+        CommentDto sync = itemUtilService.comment(booker.getId(), item.getId(), request("Синхронно"));
+
+        commentIngestion.flush();
+
+        assertNotEquals(async.getId(), sync.getId());
+        assertEquals(2, countComments());
+        assertEquals(2L, jdbcTemplate.queryForObject("SELECT comment_count FROM items WHERE id = ?",
+                Long.class, item.getId()));
+    }
+
+    @Test
+    void flush_whenDatabaseTemporarilyFails_thenWritesCommentOnNextFlush() {
+        Mockito.doThrow(new TransientDataAccessResourceException("БД недоступна"))
+                .doCallRealMethod()
+                .when(jdbcTemplate).batchUpdate(Mockito.startsWith("INSERT INTO comments"), Mockito.anyCollection(),
+                        Mockito.anyInt(), Mockito.<ParameterizedPreparedStatementSetter<Object>>any());
+        CommentDto accepted = commentIngestion.submit(booker.getId(), item.getId(), request("Отлично"));
+
+        commentIngestion.flush();
+
+        assertEquals(0, countComments());
+
+        commentIngestion.flush();
+
+        assertEquals(1, countComments());
+        assertEquals(accepted.getId(), jdbcTemplate.queryForObject("SELECT id FROM comments WHERE item_id = ?",
+                Long.class, item.getId()));
+    }
+
+    @Test
+    void flush_whenItemDeletedBeforeWrite_thenDropsOnlyItsComment() {
+        Item deleted = itemRepository.save(new Item(null, "Пила", "Цепная", true, owner, null));
+        LocalDateTime now = LocalDateTime.now();
+        bookingRepository.save(new Booking(null, now.minusDays(2), now.minusDays(1), deleted, booker,
+                BookingStatus.APPROVED));
+        commentIngestion.submit(booker.getId(), deleted.getId(), request("Удаленный"));
+        commentIngestion.submit(booker.getId(), item.getId(), request("Отлично"));
+        for (String table : List.of("item_booking_summary", "bookings")) {
+            jdbcTemplate.update("DELETE FROM " + table + " WHERE item_id = ?", deleted.getId());
+        }
+        jdbcTemplate.update("DELETE FROM items WHERE id = ?", deleted.getId());
+
+        commentIngestion.flush();
+        commentIngestion.flush();
+
+        assertEquals(1, countComments());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM comments WHERE item_id = ?",
+                Integer.class, deleted.getId()));
+    }
+
+    @Test
+    void submit_whenAuthorNeverBookedItem_thenThrowsUnavailableToComment() {
+        assertThrows(UnavailableToCommentException.class,
+                () -> commentIngestion.submit(stranger.getId(), item.getId(), request("Не брал")));
+    }
+
+    @Test
+    void submit_whenItemDoesNotExist_thenThrowsNotFound() {
+        assertThrows(NotFoundException.class,
+                () -> commentIngestion.submit(booker.getId(), item.getId() + 1000, request("Нет предмета")));
+    }
+
+    @Test
+    void invalidateItem_whenCachedAnswerIsStale_thenRechecksBookings() {
+        assertFalse(eligibilityCache.isEligible(stranger.getId(), item.getId()));
+        LocalDateTime now = LocalDateTime.now();
+        bookingRepository.save(new Booking(null, now.minusDays(4), now.minusDays(3), item, stranger,
+                BookingStatus.APPROVED));
+        assertFalse(eligibilityCache.isEligible(stranger.getId(), item.getId()));
+
+        eligibilityCache.invalidateItem(item.getId());
+
+        assertTrue(eligibilityCache.isEligible(stranger.getId(), item.getId()));
+        assertTrue(eligibilityCache.isEligible(booker.getId(), item.getId()));
+    }
+
+    @Test
+    void submit_whenQueueIsFull_thenThrowsOverflow() {
+        for (int i = 0; i < 3; i++) {
+            commentIngestion.submit(booker.getId(), item.getId(), request("Отзыв " + i));
+        }
+
+        assertThrows(CommentQueueOverflowException.class,
+                () -> commentIngestion.submit(booker.getId(), item.getId(), request("Лишний")));
+    }
+
+    private int countComments() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM comments WHERE item_id = ?", Integer.class,
+                item.getId());
+    }
+
+    private static NewCommentRequest request(String text) {
+        return new NewCommentRequest(text);
+    }
+}
@@ -0,0 +1,153 @@
+package ru.practicum.shareit.request;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemStorage;
+import ru.practicum.shareit.user.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class ItemRequestMatcherTest {
+    private final User requestor = new User(1L, "requestor", "requestor@example.com");
+    private final User owner = new User(2L, "owner", "owner@example.com");
+
+    @Mock
+    private ItemRequestStorage itemRequestRepository;
+
+    @Mock
+    private ItemStorage itemRepository;
+
+    @InjectMocks
+    private ItemRequestMatcher itemRequestMatcher;
+
+    @Test
+    void match_whenItemContainsHalfOfRequestTerms_thenSuggestsIt() {
+        itemRequestMatcher.index(request(10L, "Хотел бы воспользоваться щёткой для обуви"));
+        itemRequestMatcher.index(request(11L, "Нужна аккумуляторная дрель"));
+
+        itemRequestMatcher.match(item(100L, "Щетка для обуви", "Стандартная щётка", true, owner, null));
+
+        assertEquals(Map.of(10L, List.of(100L)), itemRequestMatcher.findSuggestedItemIds(List.of(10L, 11L)));
+    }
+
+    @Test
+    void match_whenOwnerIsRequestor_thenDoesNotSuggest() {
+        itemRequestMatcher.index(request(10L, "Дрель ударная"));
+
+        itemRequestMatcher.match(item(100L, "Дрель", "Ударная", true, requestor, null));
+
+        assertTrue(itemRequestMatcher.findSuggestedItemIds(List.of(10L)).isEmpty());
+    }
+
+    @Test
+    void match_whenItemUpdated_thenReplacesItsSuggestions() {
+        itemRequestMatcher.index(request(10L, "Дрель ударная"));
+        itemRequestMatcher.index(request(11L, "Садовая лопата"));
+
+        itemRequestMatcher.match(item(100L, "Дрель", "Ударная", true, owner, null));
+        itemRequestMatcher.match(item(100L, "Лопата", "Штыковая", true, owner, null));
+
+        assertEquals(Map.of(11L, List.of(100L)), itemRequestMatcher.findSuggestedItemIds(List.of(10L, 11L)));
+    }
+
+    @Test
+    void match_whenItemBecomesUnavailableOrDeleted_thenRemovesSuggestions() {
+        itemRequestMatcher.index(request(10L, "Дрель ударная"));
+        itemRequestMatcher.match(item(100L, "Дрель", "Ударная", true, owner, null));
+        itemRequestMatcher.match(item(101L, "Дрель", "Ударная", true, owner, null));
+
+        itemRequestMatcher.match(item(100L, "Дрель", "Ударная", false, owner, null));
+        itemRequestMatcher.delete(101L);
+
+        assertTrue(itemRequestMatcher.findSuggestedItemIds(List.of(10L)).isEmpty());
+    }
+
+    @Test
+    void match_whenItemAnswersRequest_thenClosesIt() {
+        ItemRequest request = request(10L, "Дрель ударная");
+        itemRequestMatcher.index(request);
+        itemRequestMatcher.match(item(100L, "Дрель", "Ударная", true, owner, null));
+
+        itemRequestMatcher.match(item(101L, "Дрель", "Аккумуляторная", true, owner, request));
+        itemRequestMatcher.match(item(102L, "Дрель", "Ударная", true, owner, null));
+
+        assertTrue(itemRequestMatcher.findSuggestedItemIds(List.of(10L)).isEmpty());
+    }
+
+    @Test
+    void match_whenMoreThanMaxSuggestions_thenKeepsBestRanked() {
+        itemRequestMatcher.index(request(10L, "Дрель ударная"));
+        itemRequestMatcher.match(item(1L, "Дрель", "Ударная", true, owner, null));
+        for (long id = 2; id <= ItemRequestMatcher.MAX_SUGGESTIONS + 5; id++) {
+            itemRequestMatcher.match(item(id, "Дрель", "Аккумуляторная", true, owner, null));
+        }
+
+        List<Long> suggestions = itemRequestMatcher.findSuggestedItemIds(List.of(10L)).get(10L);
+
+        assertEquals(ItemRequestMatcher.MAX_SUGGESTIONS, suggestions.size());
+        assertEquals(1L, suggestions.get(0));
+        assertEquals(ItemRequestMatcher.MAX_SUGGESTIONS + 5L, suggestions.get(1));
+    }
+
+    @Test
+    void warmUp_whenOpenRequestsAndItemsExist_thenMatchesExistingItems() {
+        Mockito.when(itemRequestRepository.findOpenByIdGreaterThan(Mockito.eq(0L), Mockito.any(Limit.class)))
+                .thenReturn(List.of(openRequest(10L, "Дрель ударная")));
+        Mockito.when(itemRequestRepository.findOpenByIdGreaterThan(Mockito.eq(10L), Mockito.any(Limit.class)))
+                .thenReturn(List.of());
+        Mockito.when(itemRepository.findByAvailableTrueAndIdGreaterThanOrderById(Mockito.eq(0L), Mockito.any(Limit.class)))
+                .thenReturn(List.of(item(100L, "Дрель", "Ударная", true, owner, null)));
+        Mockito.when(itemRepository.findByAvailableTrueAndIdGreaterThanOrderById(Mockito.eq(100L), Mockito.any(Limit.class)))
+                .thenReturn(List.of());
+
+        itemRequestMatcher.warmUp();
+
+        assertEquals(Map.of(10L, List.of(100L)), itemRequestMatcher.findSuggestedItemIds(List.of(10L)));
+    }
+
+    @Test
+    void terms_whenDescriptionHasWordForms_thenStemsAndSkipsStopWords() {
+        assertEquals(Set.of("щетк", "обув"), ItemRequestMatcher.terms("Хочу щёткой для ОБУВИ!"));
+        assertEquals(Set.of("щетк", "обув"), ItemRequestMatcher.terms("щетка, обувь"));
+    }
+
+    private ItemRequest request(Long id, String description) {
+        return new ItemRequest(id, description, requestor, LocalDateTime.now());
+    }
+
+    private OpenItemRequest openRequest(Long id, String description) {
+        return new OpenItemRequest() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getRequestorId() {
+                return requestor.getId();
+            }
+
+            @Override
+            public String getDescription() {
+                return description;
+            }
+        };
+    }
+
+    private static Item item(Long id, String name, String description, boolean available, User owner,
+                             ItemRequest request) {
+        return new Item(id, name, description, available, owner, request);
+    }
+}
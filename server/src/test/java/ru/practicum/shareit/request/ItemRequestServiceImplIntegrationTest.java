@@ -6,10 +6,18 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.ItemDto;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.NewItemRequest;
+import ru.practicum.shareit.item.UpdateItemRequest;
+import ru.practicum.shareit.pagination.Cursor;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserStorage;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -26,6 +34,9 @@ class ItemRequestServiceImplIntegrationTest {
     @Autowired
     private ItemRequestStorage itemRequestRepository;
 
+    @Autowired
+    private ItemService itemService;
+
     @BeforeEach
     void beforeEach() {
         itemRequestRepository.deleteAll();
@@ -60,4 +71,83 @@ class ItemRequestServiceImplIntegrationTest {
     void checkItemRequest_whenNotFound_thenThrowsException() {
         assertThrows(NotFoundException.class, () -> itemRequestService.checkItemRequest(999L));
     }
-}
\ No newline at end of file
+
+    @Test
+    void findItemRequestETag_whenItemAnswersRequest_thenChanges() {
+        User requestor = userRepository.save(new User(null, "requestor", "requestor@mail.com"));
+        User owner = userRepository.save(new User(null, "owner", "owner@mail.com"));
+        ItemRequest itemRequest = itemRequestRepository.save(
+                new ItemRequest(null, "desc", requestor, LocalDateTime.now()));
+        String created = itemRequestService.findItemRequestETag(requestor.getId(), itemRequest.getId());
+
+        ItemDto item = itemService.save(owner.getId(), new NewItemRequest("item", "desc", true, itemRequest.getId()),
+                itemRequest);
+        String answered = itemRequestService.findItemRequestETag(requestor.getId(), itemRequest.getId());
+
+        UpdateItemRequest update = new UpdateItemRequest();
+        update.setAvailable(false);
+        itemService.update(owner.getId(), item.getId(), update);
+        String itemUpdated = itemRequestService.findItemRequestETag(requestor.getId(), itemRequest.getId());
+
+        assertNotEquals(created, answered);
+        assertNotEquals(answered, itemUpdated);
+    }
+
+    @Test
+    void findAllOthers_whenPagedWithCursor_thenReturnsEveryOtherRequestOnceNewestFirst() {
+        User user = userRepository.save(new User(null, "user", "user@mail.com"));
+        User other = userRepository.save(new User(null, "other", "other@mail.com"));
+        itemRequestRepository.save(new ItemRequest(null, "own", user, LocalDateTime.now()));
+        for (int i = 0; i < 5; i++) {
+            itemRequestRepository.save(new ItemRequest(null, "request" + i, other, LocalDateTime.now()));
+        }
+
+        List<ItemRequestDto> seen = new ArrayList<>();
+        Cursor after = null;
+        List<ItemRequestDto> page;
+        do {
+            page = List.copyOf(itemRequestService.findAllOthers(user.getId(), after, 2));
+            seen.addAll(page);
+            if (!page.isEmpty()) {
+                ItemRequestDto last = page.getLast();
+                after = Cursor.from(last.getCreated() + "_" + last.getId());
+            }
+        } while (page.size() == 2);
+
+        assertEquals(5, seen.size());
+        assertEquals(5, seen.stream().map(ItemRequestDto::getId).distinct().count());
+        assertTrue(seen.stream().noneMatch(dto -> dto.getDescription().equals("own")));
+        assertEquals(seen.stream()
+                        .sorted(Comparator.comparing(ItemRequestDto::getCreated)
+                                .thenComparing(ItemRequestDto::getId).reversed())
+                        .toList(),
+                seen);
+    }
+
+    @Test
+    void findAllOthers_whenRequestsFromDifferentUsers_thenEachCarriesItsOwnRequestor() {
+        User user = userRepository.save(new User(null, "user", "user@mail.com"));
+        User first = userRepository.save(new User(null, "first", "first@mail.com"));
+        User second = userRepository.save(new User(null, "second", "second@mail.com"));
+        LocalDateTime now = LocalDateTime.now();
+        ItemRequest firstRequest = itemRequestRepository.save(new ItemRequest(null, "дрель", first, now.minusMinutes(1)));
+        ItemRequest secondRequest = itemRequestRepository.save(new ItemRequest(null, "пила", second, now));
+
+        List<ItemRequestDto> requests = List.copyOf(itemRequestService.findAllOthers(user.getId(), null, 10));
+
+        assertEquals(List.of(secondRequest.getId(), firstRequest.getId()),
+                requests.stream().map(ItemRequestDto::getId).toList());
+        assertEquals(second.getId(), requests.get(0).getRequestor().getId());
+        assertEquals("second", requests.get(0).getRequestor().getName());
+        assertEquals(first.getId(), requests.get(1).getRequestor().getId());
+        assertEquals("first@mail.com", requests.get(1).getRequestor().getEmail());
+    }
+
+    @Test
+    void findAllOthers_whenLimitTooLarge_thenThrowsValidationException() {
+        User user = userRepository.save(new User(null, "user", "user@mail.com"));
+
+        assertThrows(ValidationException.class, () -> itemRequestService.findAllOthers(user.getId(), null, 101));
+        assertThrows(ValidationException.class, () -> itemRequestService.findAllOthers(user.getId(), null, 0));
+    }
+}
@@ -7,6 +7,7 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.ItemService;
 import ru.practicum.shareit.item.ItemShortDto;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserService;
@@ -14,6 +15,7 @@ import ru.practicum.shareit.user.UserService;
 import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -24,6 +26,10 @@ class ItemRequestServiceImplTest {
     private ItemRequestStorage itemRequestRepository;
     @Mock
     private UserService userService;
+    @Mock
+    private ItemService itemService;
+    @Mock
+    private ItemRequestMatcher itemRequestMatcher;
 
     @InjectMocks
     private ItemRequestServiceImpl itemRequestService;
@@ -80,4 +86,26 @@ class ItemRequestServiceImplTest {
 
         Mockito.verify(itemRequestRepository).findById(requestId);
     }
-}
\ No newline at end of file
+
+    @Test
+    void findAllByRequestorId_whenItemsSuggested_thenReturnsThemInRankOrder() {
+        Long requestorId = 1L;
+        User user = new User(requestorId, "name", "name@email.com");
+        ItemRequestRow row = new ItemRequestRow(10L, "дрель", LocalDateTime.now());
+        ItemShortDto drill = new ItemShortDto(100L, "Дрель", true, 2L, "owner@email.com");
+        ItemShortDto hammerDrill = new ItemShortDto(101L, "Перфоратор", true, 2L, "owner@email.com");
+
+        Mockito.when(userService.checkUser(requestorId)).thenReturn(user);
+        Mockito.when(itemRequestRepository.findAllByRequestorIdOrderByCreatedDesc(requestorId)).thenReturn(List.of(row));
+        Mockito.when(itemService.findAllItemsByRequestIds(List.of(10L))).thenReturn(Map.of());
+        Mockito.when(itemRequestMatcher.findSuggestedItemIds(List.of(10L))).thenReturn(Map.of(10L, List.of(101L, 100L)));
+        Mockito.when(itemService.findAllShortByIds(Mockito.anyCollection()))
+                .thenReturn(Map.of(100L, drill, 101L, hammerDrill));
+
+        Collection<ItemRequestDto> result = itemRequestService.findAllByRequestorId(requestorId);
+
+        ItemRequestDto request = result.iterator().next();
+        assertEquals(List.of(hammerDrill, drill), List.copyOf(request.getSuggestions()));
+        assertTrue(request.getItems().isEmpty());
+    }
+}
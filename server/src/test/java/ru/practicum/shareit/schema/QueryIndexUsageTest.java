@@ -0,0 +1,245 @@
+package ru.practicum.shareit.schema;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.BookingStorage;
+import ru.practicum.shareit.booking.summary.ItemBookingSummaryStorage;
+import ru.practicum.shareit.item.ItemStorage;
+import ru.practicum.shareit.item.comment.CommentStorage;
+import ru.practicum.shareit.request.ItemRequestStorage;
+import ru.practicum.shareit.user.UserStorage;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Для каждого запроса репозитория перехватывает SQL, который сгенерировал Hibernate,
+ * и проверяет по EXPLAIN, что ни одна таблица в нем не читается полным сканированием.
+ * ItemBookingSummaryStorage.findItemIdsWithoutSummary не проверяется: дозаполнение витрины
+ * намеренно проходит по всем предметам.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+        "ru.practicum.shareit.schema.StatementRecorder")
+class QueryIndexUsageTest {
+    private static final List<Long> IDS = List.of(1L, 2L, 3L);
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final Limit PAGE = Limit.of(20);
+    private static final Pattern TABLE_ACCESS =
+            Pattern.compile("(?:/\\*|/\\+\\+) PUBLIC\\.([\\w.]+)(:[^*+]*)? ?(?:\\*/|\\+\\+/)");
+    private static final Pattern SORTED_LIMIT =
+            Pattern.compile("FETCH (?:FIRST|NEXT) \\S+ ROWS? ONLY\\s*/\\* index sorted \\*/\\s*$");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private UserStorage userRepository;
+
+    @Autowired
+    private ItemStorage itemRepository;
+
+    @Autowired
+    private BookingStorage bookingRepository;
+
+    @Autowired
+    private CommentStorage commentRepository;
+
+    @Autowired
+    private ItemRequestStorage itemRequestRepository;
+
+    @Autowired
+    private ItemBookingSummaryStorage itemBookingSummaryRepository;
+
+    static Stream<Arguments> repositoryQueries() {
+        return Stream.of(
+                query("UserStorage.findByEmail", test -> test.userRepository.findByEmail("user@example.com")),
+                query("ItemStorage.findById", test -> test.itemRepository.findById(1L)),
+                query("ItemStorage.findAllByOwnerId", test -> test.itemRepository.findAllByOwnerId(1L)),
+                query("ItemStorage.findAllByIdIn", test -> test.itemRepository.findAllByIdIn(IDS)),
+                query("ItemStorage.findAllRowsByIdIn", test -> test.itemRepository.findAllRowsByIdIn(IDS)),
+                query("ItemStorage.findByAvailableTrueAndIdGreaterThanOrderById",
+                        test -> test.itemRepository.findByAvailableTrueAndIdGreaterThanOrderById(0L, Limit.of(1000))),
+                query("ItemStorage.findAllByRequestId", test -> test.itemRepository.findAllByRequestId(1L)),
+                query("ItemStorage.findAllShortByIdIn", test -> test.itemRepository.findAllShortByIdIn(IDS)),
+                query("ItemStorage.findAllByRequestIdIn", test -> test.itemRepository.findAllByRequestIdIn(IDS)),
+                query("ItemStorage.findVersionById", test -> test.itemRepository.findVersionById(1L)),
+                query("ItemStorage.findIdsShowingUser", test -> test.itemRepository.findIdsShowingUser(1L)),
+                query("ItemStorage.incrementVersions", test -> {
+                    test.itemRepository.incrementVersions(IDS);
+                    return null;
+                }),
+                query("BookingStorage.findById", test -> test.bookingRepository.findById(1L)),
+                query("BookingStorage.findVersionById", test -> test.bookingRepository.findVersionById(1L)),
+                query("BookingStorage.incrementVersionsByBookerId", test -> {
+                    test.bookingRepository.incrementVersionsByBookerId(1L);
+                    return null;
+                }),
+                query("BookingStorage.findApprovalCandidates",
+                        test -> test.bookingRepository.findApprovalCandidates(IDS)),
+                query("BookingStorage.findPageByBookerId",
+                        test -> test.bookingRepository.findPageByBookerId(1L, NOW, 0L, PAGE)),
+                query("BookingStorage.findPageByBookerIdAndEndAfter",
+                        test -> test.bookingRepository.findPageByBookerIdAndEndAfter(1L, NOW, NOW, 0L, PAGE)),
+                query("BookingStorage.findPageByBookerIdAndEndBefore",
+                        test -> test.bookingRepository.findPageByBookerIdAndEndBefore(1L, NOW, NOW, 0L, PAGE)),
+                query("BookingStorage.findPageByBookerIdAndStartAfter",
+                        test -> test.bookingRepository.findPageByBookerIdAndStartAfter(1L, NOW, NOW, 0L, PAGE)),
+                query("BookingStorage.findPageByBookerIdAndStatus", test -> test.bookingRepository
+                        .findPageByBookerIdAndStatus(1L, BookingStatus.WAITING, NOW, 0L, PAGE)),
+                query("BookingStorage.existsByBookerIdAndItemIdAndEndBefore",
+                        test -> test.bookingRepository.existsByBookerIdAndItemIdAndEndBefore(1L, 1L, NOW)),
+                query("BookingStorage.countStatesByItemOwnerId",
+                        test -> test.bookingRepository.countStatesByItemOwnerId(1L, NOW)),
+                query("BookingStorage.findPageByItemOwnerId",
+                        test -> test.bookingRepository.findPageByItemOwnerId(1L, NOW, 0L, PAGE)),
+                query("BookingStorage.findPageByItemOwnerIdAndEndAfter",
+                        test -> test.bookingRepository.findPageByItemOwnerIdAndEndAfter(1L, NOW, NOW, 0L, PAGE)),
+                query("BookingStorage.findPageByItemOwnerIdAndEndBefore",
+                        test -> test.bookingRepository.findPageByItemOwnerIdAndEndBefore(1L, NOW, NOW, 0L, PAGE)),
+                query("BookingStorage.findPageByItemOwnerIdAndStartAfter",
+                        test -> test.bookingRepository.findPageByItemOwnerIdAndStartAfter(1L, NOW, NOW, 0L, PAGE)),
+                query("BookingStorage.findPageByItemOwnerIdAndStatus", test -> test.bookingRepository
+                        .findPageByItemOwnerIdAndStatus(1L, BookingStatus.WAITING, NOW, 0L, PAGE)),
+                query("BookingStorage.findByStatusInAndEndAfter", test -> test.bookingRepository
+                        .findByStatusInAndEndAfter(EnumSet.of(BookingStatus.WAITING, BookingStatus.APPROVED), NOW)),
+                query("BookingStorage.findPrevBookings", test -> test.bookingRepository.findPrevBookings(IDS, NOW)),
+                query("BookingStorage.findNextBookings", test -> test.bookingRepository.findNextBookings(IDS, NOW)),
+                query("CommentStorage.findById", test -> test.commentRepository.findById(1L)),
+                query("CommentStorage.findPageByItemId",
+                        test -> test.commentRepository.findPageByItemId(1L, NOW, 100L, PAGE)),
+                query("CommentStorage.findByItemIdIn", test -> test.commentRepository.findByItemIdIn(IDS, 10)),
+                query("ItemRequestStorage.findById", test -> test.itemRequestRepository.findById(1L)),
+                query("ItemRequestStorage.findAllByRequestorIdOrderByCreatedDesc",
+                        test -> test.itemRequestRepository.findAllByRequestorIdOrderByCreatedDesc(1L)),
+                query("ItemRequestStorage.findPageByRequestorIdNot",
+                        test -> test.itemRequestRepository.findPageByRequestorIdNot(1L, NOW, 100L, PAGE)),
+                query("ItemRequestStorage.findOpenByIdGreaterThan",
+                        test -> test.itemRequestRepository.findOpenByIdGreaterThan(0L, Limit.of(1000))),
+                query("ItemRequestStorage.findVersionById", test -> test.itemRequestRepository.findVersionById(1L)),
+                query("ItemRequestStorage.incrementVersionsByRequestorId", test -> {
+                    test.itemRequestRepository.incrementVersionsByRequestorId(1L);
+                    return null;
+                }),
+                query("ItemRequestStorage.incrementVersionsAnsweredByOwnerId", test -> {
+                    test.itemRequestRepository.incrementVersionsAnsweredByOwnerId(1L);
+                    return null;
+                }),
+                query("ItemBookingSummaryStorage.findForUpdate",
+                        test -> test.itemBookingSummaryRepository.findForUpdate(1L)),
+                query("ItemBookingSummaryStorage.findAllForUpdate",
+                        test -> test.itemBookingSummaryRepository.findAllForUpdate(IDS)),
+                query("ItemBookingSummaryStorage.findStaleItemIds",
+                        test -> test.itemBookingSummaryRepository.findStaleItemIds(NOW, Limit.of(500))),
+                query("ItemBookingSummaryStorage.findEarliestEnds",
+                        test -> test.itemBookingSummaryRepository.findEarliestEnds(IDS, NOW))
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("repositoryQueries")
+    void explain_whenRepositoryQuery_thenUsesIndex(String query, Function<QueryIndexUsageTest, ?> call) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        List<String> statements = StatementRecorder.record(() -> transactionTemplate.execute(status -> {
+            status.setRollbackOnly();
+            return call.apply(this);
+        }));
+
+        assertFalse(statements.isEmpty(), query + " не отправил ни одного запроса");
+        for (String sql : statements) {
+            String plan = jdbcTemplate.query("EXPLAIN " + sql, QueryIndexUsageTest::bindNulls,
+                    resultSet -> resultSet.next() ? resultSet.getString(1) : null);
+
+            assertTrue(TABLE_ACCESS.matcher(plan).find(), query + ": в плане нет обращений к таблицам:\n" + plan);
+            assertTrue(findFullScans(plan).isEmpty(), query + " читает без условия по индексу "
+                    + findFullScans(plan) + ":\n" + plan);
+        }
+    }
+
+    @Test
+    void findFullScans_whenSortedLimitedQueryJoinsUnindexedTable_thenReportsJoinedTable() {
+        String plan = "SELECT R.ID FROM PUBLIC.ITEM_REQUESTS R /* PUBLIC.IDX_ITEM_REQUESTS_CREATED_ID */ " +
+                "INNER JOIN PUBLIC.USERS U /* PUBLIC.USERS.tableScan */ ON 1=1 " +
+                "WHERE (SELECT COUNT(*) FROM PUBLIC.ITEMS I /* PUBLIC.IDX_ITEMS_REQUEST_ID */) > 0 " +
+                "ORDER BY R.CREATED DESC FETCH FIRST ?1 ROWS ONLY /* index sorted */";
+
+        assertEquals(List.of("USERS.tableScan", "IDX_ITEMS_REQUEST_ID"), findFullScans(plan));
+    }
+
+    /**
+     * H2 помечает каждое обращение к таблице комментарием с индексом и условием по нему:
+     * "PUBLIC.IDX_ITEMS_OWNER_ID: OWNER_ID = ?1". Комментарий без условия (или tableScan) - полный проход.
+     * Исключение - первая таблица внешнего запроса, когда весь запрос читается в порядке ее индекса
+     * и ограничен FETCH FIRST (план заканчивается на "index sorted"): чтение останавливается после
+     * первых limit строк. Остальные таблицы того же плана, включая подзапросы, проверяются как обычно.
+     */
+    private static List<String> findFullScans(String plan) {
+        int sortedAccess = SORTED_LIMIT.matcher(plan).find() ? findDrivingAccess(plan) : -1;
+        List<String> scans = new ArrayList<>();
+        Matcher matcher = TABLE_ACCESS.matcher(plan);
+        while (matcher.find()) {
+            boolean tableScan = matcher.group(1).endsWith(".tableScan");
+            if (tableScan || (matcher.group(2) == null && matcher.start() != sortedAccess)) {
+                scans.add(matcher.group(1));
+            }
+        }
+        return scans;
+    }
+
+    /**
+     * Позиция первого обращения к таблице после FROM внешнего запроса (вне скобок подзапросов).
+     */
+    private static int findDrivingAccess(String plan) {
+        int depth = 0;
+        for (int i = 0; i < plan.length(); i++) {
+            char c = plan.charAt(i);
+            if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (depth == 0 && plan.startsWith("FROM ", i)) {
+                Matcher matcher = TABLE_ACCESS.matcher(plan);
+                return matcher.find(i) ? matcher.start() : -1;
+            }
+        }
+        return -1;
+    }
+
+    private static Arguments query(String name, Function<QueryIndexUsageTest, ?> call) {
+        return Arguments.of(name, call);
+    }
+
+    /**
+     * План в H2 строится при подготовке запроса и от значений параметров не зависит,
+     * поэтому параметры достаточно заполнить NULL.
+     */
+    private static void bindNulls(PreparedStatement statement) throws SQLException {
+        int count = statement.getParameterMetaData().getParameterCount();
+        for (int i = 1; i <= count; i++) {
+            statement.setObject(i, null);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package ru.practicum.shareit.schema;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Запоминает SQL, который Hibernate отправляет в БД из текущего потока во время {@link #record}.
+ * Подключается через spring.jpa.properties.hibernate.session_factory.statement_inspector.
+ */
+public class StatementRecorder implements StatementInspector {
+    private static final ThreadLocal<List<String>> STATEMENTS = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        List<String> statements = STATEMENTS.get();
+        if (statements != null) {
+            statements.add(sql);
+        }
+        return sql;
+    }
+
+    public static List<String> record(Supplier<?> call) {
+        List<String> statements = new ArrayList<>();
+        STATEMENTS.set(statements);
+        try {
+            call.get();
+        } finally {
+            STATEMENTS.remove();
+        }
+        return statements;
+    }
+}
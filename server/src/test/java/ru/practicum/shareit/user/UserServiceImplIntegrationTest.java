@@ -3,16 +3,31 @@ package ru.practicum.shareit.user;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.BookingStorage;
 import ru.practicum.shareit.exception.ConflictEmailException;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemStorage;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.ItemRequestStorage;
 
+import java.time.LocalDateTime;
 import java.util.Collection;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
+@AutoConfigureMockMvc
 @Transactional
 class UserServiceImplIntegrationTest {
     @Autowired
@@ -21,6 +36,18 @@ class UserServiceImplIntegrationTest {
     @Autowired
     private UserStorage userRepository;
 
+    @Autowired
+    private ItemStorage itemRepository;
+
+    @Autowired
+    private BookingStorage bookingRepository;
+
+    @Autowired
+    private ItemRequestStorage itemRequestRepository;
+
+    @Autowired
+    private MockMvc mockMvc;
+
     @BeforeEach
     void beforeEach() {
         userRepository.deleteAll();
@@ -75,4 +102,46 @@ class UserServiceImplIntegrationTest {
                 userService.save(new NewUserRequest("name2", "name@mail.com")));
     }
 
-}
\ No newline at end of file
+    @Test
+    void update_whenEmailChanged_thenBookingAndRequestETagsChange() throws Exception {
+        User owner = userRepository.save(new User(null, "owner", "owner@mail.com"));
+        User booker = userRepository.save(new User(null, "booker", "booker@mail.com"));
+        ItemRequest itemRequest = itemRequestRepository.save(
+                new ItemRequest(null, "Нужна дрель", booker, LocalDateTime.now()));
+        itemRepository.save(new Item(null, "Дрель", "Ударная", true, owner, itemRequest));
+        Item item = itemRepository.save(new Item(null, "Пила", "Цепная", true, owner, null));
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        Booking booking = bookingRepository.save(new Booking(null, start, start.plusDays(1), item, booker,
+                BookingStatus.WAITING));
+        String bookingPath = "/bookings/" + booking.getId();
+        String requestPath = "/requests/" + itemRequest.getId();
+        String bookingETag = eTag(bookingPath, booker);
+        String requestETag = eTag(requestPath, booker);
+
+        userService.update(booker.getId(), new UpdateUserRequest(booker.getId(), null, "renamed@mail.com"));
+
+        String newBookingETag = assertModified(bookingPath, booker, bookingETag, "$.booker.email");
+        String newRequestETag = assertModified(requestPath, booker, requestETag, "$.requestor.email");
+        assertNotEquals(bookingETag, newBookingETag);
+        assertNotEquals(requestETag, newRequestETag);
+
+        userService.update(owner.getId(), new UpdateUserRequest(owner.getId(), null, "owner-renamed@mail.com"));
+
+        assertNotEquals(newRequestETag, eTag(requestPath, booker));
+    }
+
+    private String eTag(String path, User user) throws Exception {
+        return mockMvc.perform(get(path).header("X-Sharer-User-Id", user.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    private String assertModified(String path, User user, String eTag, String emailPath) throws Exception {
+        return mockMvc.perform(get(path)
+                        .header("X-Sharer-User-Id", user.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath(emailPath).value("renamed@mail.com"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+}
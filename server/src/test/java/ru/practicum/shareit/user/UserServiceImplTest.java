@@ -1,14 +1,21 @@
 package ru.practicum.shareit.user;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.booking.BookingStorage;
 import ru.practicum.shareit.exception.ConflictEmailException;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.ItemDtoCache;
+import ru.practicum.shareit.item.ItemStorage;
+import ru.practicum.shareit.request.ItemRequestStorage;
 
+import java.time.Duration;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
@@ -19,6 +26,17 @@ import static org.junit.jupiter.api.Assertions.*;
 class UserServiceImplTest {
     @Mock
     private UserStorage userRepository;
+    @Spy
+    private UserCache userCache = new UserCache(100, Duration.ofMinutes(1), Duration.ofSeconds(5),
+            new SimpleMeterRegistry());
+    @Mock
+    private ItemStorage itemRepository;
+    @Mock
+    private ItemDtoCache itemDtoCache;
+    @Mock
+    private BookingStorage bookingRepository;
+    @Mock
+    private ItemRequestStorage itemRequestRepository;
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -75,6 +93,45 @@ class UserServiceImplTest {
         assertThrows(NotFoundException.class, () -> userService.findUserById(1L));
     }
 
+    @Test
+    void checkUser_whenCalledTwice_thenQueriesRepositoryOnce() {
+        User user = new User(1L, "name1", "email1@e.com");
+        Mockito.when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+
+        userService.checkUser(1L);
+        User result = userService.checkUser(1L);
+
+        assertEquals(user, result);
+        Mockito.verify(userRepository, Mockito.times(1)).findById(1L);
+    }
+
+    @Test
+    void checkUser_whenUserNotFound_thenCachesAbsence() {
+        Mockito.when(userRepository.findById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(NotFoundException.class, () -> userService.checkUser(1L));
+        assertThrows(NotFoundException.class, () -> userService.checkUser(1L));
+
+        Mockito.verify(userRepository, Mockito.times(1)).findById(1L);
+    }
+
+    @Test
+    void checkUser_whenUserUpdated_thenReturnsUpdatedUser() {
+        Long id = 1L;
+        User user = new User(id, "oldName", "same@email.com");
+        Mockito.when(userRepository.findById(id))
+                .thenReturn(Optional.of(user))
+                .thenReturn(Optional.of(new User(id, "oldName", "same@email.com")))
+                .thenReturn(Optional.of(new User(id, "newName", "same@email.com")));
+        Mockito.when(userRepository.save(Mockito.any())).thenAnswer(inv -> inv.getArgument(0));
+
+        userService.checkUser(id);
+        userService.update(id, new UpdateUserRequest(id, "newName", "same@email.com"));
+
+        assertEquals("newName", userService.checkUser(id).getName());
+        Mockito.verify(userCache).invalidate(id);
+    }
+
     @Test
     void update_whenEmailNotChanged_thenSavesUpdatedUser() {
         Long id = 1L;
@@ -90,6 +147,36 @@ class UserServiceImplTest {
         Mockito.verify(userRepository).save(Mockito.any());
     }
 
+    @Test
+    void update_whenNameChanged_thenRefreshesCopiesShowingUser() {
+        Long id = 1L;
+        User user = new User(id, "oldName", "same@email.com");
+        Mockito.when(userRepository.findById(id)).thenReturn(Optional.of(user));
+        Mockito.when(userRepository.save(Mockito.any())).thenAnswer(inv -> inv.getArgument(0));
+        Mockito.when(itemRepository.findIdsShowingUser(id)).thenReturn(List.of(10L, 20L));
+
+        userService.update(id, new UpdateUserRequest(id, "newName", "same@email.com"));
+
+        Mockito.verify(itemRepository).incrementVersions(List.of(10L, 20L));
+        Mockito.verify(itemDtoCache).invalidate(10L);
+        Mockito.verify(itemDtoCache).invalidate(20L);
+        Mockito.verify(bookingRepository).incrementVersionsByBookerId(id);
+        Mockito.verify(itemRequestRepository).incrementVersionsByRequestorId(id);
+        Mockito.verify(itemRequestRepository).incrementVersionsAnsweredByOwnerId(id);
+    }
+
+    @Test
+    void update_whenNothingChanged_thenKeepsItemCards() {
+        Long id = 1L;
+        User user = new User(id, "name", "same@email.com");
+        Mockito.when(userRepository.findById(id)).thenReturn(Optional.of(user));
+        Mockito.when(userRepository.save(Mockito.any())).thenAnswer(inv -> inv.getArgument(0));
+
+        userService.update(id, new UpdateUserRequest(id, "name", "same@email.com"));
+
+        Mockito.verifyNoInteractions(itemRepository, itemDtoCache, bookingRepository, itemRequestRepository);
+    }
+
     @Test
     void update_whenEmailChangedToExisting_thenThrowsConflictEmailException() {
         Long id = 1L;
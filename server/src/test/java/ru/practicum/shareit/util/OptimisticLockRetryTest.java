@@ -0,0 +1,71 @@
+package ru.practicum.shareit.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OptimisticLockRetryTest {
+    private static final String ENDPOINT = "PATCH /bookings/{bookingId}";
+
+    private SimpleMeterRegistry meterRegistry;
+    private OptimisticLockRetry optimisticLockRetry;
+    private AtomicInteger calls;
+
+    @BeforeEach
+    void beforeEach() {
+        meterRegistry = new SimpleMeterRegistry();
+        optimisticLockRetry = new OptimisticLockRetry(3, Duration.ZERO, meterRegistry);
+        calls = new AtomicInteger();
+    }
+
+    @Test
+    void execute_whenConflictIsTransient_thenRetriesAndReturnsResult() {
+        String result = optimisticLockRetry.execute(ENDPOINT, () -> {
+            if (calls.incrementAndGet() < 3) {
+                throw new ObjectOptimisticLockingFailureException("Booking", 1L);
+            }
+            return "ok";
+        });
+
+        assertEquals("ok", result);
+        assertEquals(3, calls.get());
+        assertEquals(2.0, conflicts("retried"));
+        assertEquals(0.0, conflicts("rejected"));
+    }
+
+    @Test
+    void execute_whenConflictPersists_thenThrowsAfterMaxAttempts() {
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> optimisticLockRetry.execute(ENDPOINT, () -> {
+            calls.incrementAndGet();
+            throw new ObjectOptimisticLockingFailureException("Booking", 1L);
+        }));
+
+        assertEquals(3, calls.get());
+        assertEquals(2.0, conflicts("retried"));
+        assertEquals(1.0, conflicts("rejected"));
+    }
+
+    @Test
+    void execute_whenOtherException_thenDoesNotRetry() {
+        assertThrows(IllegalArgumentException.class, () -> optimisticLockRetry.execute(ENDPOINT, () -> {
+            calls.incrementAndGet();
+            throw new IllegalArgumentException();
+        }));
+
+        assertEquals(1, calls.get());
+    }
+
+    private double conflicts(String outcome) {
+        Counter counter = meterRegistry.find("shareit.optimistic-lock.conflicts")
+                .tags("endpoint", ENDPOINT, "outcome", outcome)
+                .counter();
+        return counter == null ? 0.0 : counter.count();
+    }
+}